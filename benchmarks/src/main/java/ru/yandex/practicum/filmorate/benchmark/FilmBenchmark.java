@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmBenchmark {
+
+    @Benchmark
+    public List<Film> getPopularFilms(FilmorateState state) {
+        return state.filmService.getPopularFilms(10);
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilmsByMpaAndYear(FilmorateState state) {
+        return state.filmService.getPopularFilms(10, null, 1, 2000);
+    }
+
+    @Benchmark
+    public int addAndRemoveLike(FilmorateState state) {
+        int filmId = state.randomFilmId();
+        state.filmService.addLike(filmId, state.likerId);
+        state.filmService.removeLike(filmId, state.likerId);
+        return filmId;
+    }
+
+    @Benchmark
+    public List<Film> getFilmsPage(FilmorateState state) {
+        return state.filmStorage.getFilms(state.randomFilmId(), 100);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public List<Film> getFilms(FilmorateState state) {
+        return state.filmStorage.getFilms();
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.index.FilmExistenceIndex;
+import ru.yandex.practicum.filmorate.index.FilmLeaderboards;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.FilmSimilarityIndex;
+import ru.yandex.practicum.filmorate.index.FriendshipIndex;
+import ru.yandex.practicum.filmorate.index.UserExistenceIndex;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+@State(Scope.Benchmark)
+public class FilmorateState {
+
+    @Param({"db", "in-memory"})
+    public String storage;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"10"})
+    public int likesPerUser;
+
+    @Param({"20"})
+    public int friendsPerUser;
+
+    @Param({"false"})
+    public boolean virtualThreads;
+
+    public FilmService filmService;
+    public UserService userService;
+    public FilmStorage filmStorage;
+    public UserStorage userStorage;
+    public int likerId;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID(),
+                        "logging.level.ru.yandex.practicum=WARN",
+                        "filmorate.virtual-threads.enabled=" + virtualThreads);
+        if ("in-memory".equals(storage)) {
+            builder.profiles("in-memory");
+        }
+        context = builder.run();
+
+        filmService = context.getBean(FilmService.class);
+        userService = context.getBean(UserService.class);
+        filmStorage = context.getBean(FilmStorage.class);
+        userStorage = context.getBean(UserStorage.class);
+
+        new Seeder(context, size, likesPerUser, friendsPerUser).seed();
+        context.getBean(FilmExistenceIndex.class).rebuild();
+        context.getBean(UserExistenceIndex.class).rebuild();
+        context.getBean(FriendshipIndex.class).rebuild();
+        context.getBean(FilmSimilarityIndex.class).rebuild();
+        context.getBean(FilmLeaderboards.class).rebuild();
+        context.getBean(FilmSearchIndex.class).rebuild();
+
+        likerId = userService.createUser(User.builder()
+                .email("liker@mail.com")
+                .login("liker")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build()).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public int randomFilmId() {
+        return ThreadLocalRandom.current().nextInt(size) + 1;
+    }
+
+    public int randomUserId() {
+        return ThreadLocalRandom.current().nextInt(size) + 1;
+    }
+}
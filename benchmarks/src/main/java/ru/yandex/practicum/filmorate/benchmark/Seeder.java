@@ -0,0 +1,124 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+class Seeder {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final LocalDate DATE = LocalDate.of(2000, 1, 1);
+
+    private final ApplicationContext context;
+    private final int size;
+    private final int likesPerUser;
+    private final int friendsPerUser;
+    private final Random random = new Random(42);
+
+    Seeder(ApplicationContext context, int size, int likesPerUser, int friendsPerUser) {
+        this.context = context;
+        this.size = size;
+        this.likesPerUser = likesPerUser;
+        this.friendsPerUser = friendsPerUser;
+    }
+
+    void seed() {
+        FilmStorage filmStorage = context.getBean(FilmStorage.class);
+        if (filmStorage instanceof FilmDbStorage) {
+            seedDatabase(context.getBean(JdbcTemplate.class));
+            ((FilmDbStorage) filmStorage).repairLikeCounts();
+        } else {
+            seedStorages(filmStorage, context.getBean(UserStorage.class));
+        }
+    }
+
+    private void seedDatabase(JdbcTemplate jdbcTemplate) {
+        batch(jdbcTemplate, "INSERT INTO films (name, description, release_date, duration, rate, mpa_id) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", size,
+                i -> new Object[]{"film " + i, "description " + i, DATE, 100, 0, i % 5 + 1});
+        batch(jdbcTemplate, "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)", size,
+                i -> new Object[]{"user" + i + "@mail.com", "user" + i, "user " + i, DATE});
+
+        List<Object[]> likes = new ArrayList<>();
+        List<Object[]> friends = new ArrayList<>();
+        for (int userId = 1; userId <= size; userId++) {
+            for (int filmId : pick(userId, likesPerUser, true)) {
+                likes.add(new Object[]{userId, filmId});
+            }
+            for (int friendId : pick(userId, friendsPerUser, false)) {
+                friends.add(new Object[]{userId, friendId});
+            }
+            if (likes.size() >= BATCH_SIZE || userId == size) {
+                jdbcTemplate.batchUpdate("INSERT INTO likes (user_id, film_id) VALUES (?, ?)", likes);
+                jdbcTemplate.batchUpdate("INSERT INTO friendship (user_id, friend_id) VALUES (?, ?)", friends);
+                likes.clear();
+                friends.clear();
+            }
+        }
+    }
+
+    private void seedStorages(FilmStorage filmStorage, UserStorage userStorage) {
+        for (int i = 0; i < size; i++) {
+            filmStorage.create(Film.builder()
+                    .name("film " + i)
+                    .description("description " + i)
+                    .releaseDate(DATE)
+                    .duration(100)
+                    .mpa(new Mpa(i % 5 + 1, null))
+                    .build());
+            userStorage.create(User.builder()
+                    .email("user" + i + "@mail.com")
+                    .login("user" + i)
+                    .name("user " + i)
+                    .birthday(DATE)
+                    .build());
+        }
+
+        for (int userId = 1; userId <= size; userId++) {
+            for (int filmId : pick(userId, likesPerUser, true)) {
+                filmStorage.addLike(filmId, userId);
+            }
+            for (int friendId : pick(userId, friendsPerUser, false)) {
+                userStorage.addFriend(userId, friendId);
+            }
+        }
+    }
+
+    // popular ids are skewed towards the start of the range so the top-N lists are stable
+    private Set<Integer> pick(int userId, int count, boolean skewed) {
+        Set<Integer> ids = new HashSet<>();
+        int limit = Math.min(count, size - 1);
+        while (ids.size() < limit) {
+            double position = skewed ? Math.pow(random.nextDouble(), 3) : random.nextDouble();
+            int id = (int) (position * size) + 1;
+            if (id != userId || skewed) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private void batch(JdbcTemplate jdbcTemplate, String sql, int count, IntFunction<Object[]> row) {
+        List<Object[]> rows = new ArrayList<>(Math.min(count, BATCH_SIZE));
+        for (int i = 0; i < count; i++) {
+            rows.add(row.apply(i));
+            if (rows.size() == BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserBenchmark {
+
+    @Benchmark
+    public List<User> getCommonFriends(FilmorateState state) {
+        int userId = state.randomUserId();
+        int otherId = userId % state.size + 1;
+        return state.userService.getCommonFriends(userId, otherId);
+    }
+
+    @Benchmark
+    public List<User> getFriendSuggestions(FilmorateState state) {
+        return state.userService.getFriendSuggestions(state.randomUserId(), 10);
+    }
+}
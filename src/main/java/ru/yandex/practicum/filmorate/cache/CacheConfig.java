@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class CacheConfig implements WebMvcConfigurer {
+
+    private final ETagInterceptor eTagInterceptor;
+    private final FilmJsonCache filmJsonCache;
+    private final ObjectMapper objectMapper;
+
+    public CacheConfig(ETagInterceptor eTagInterceptor, FilmJsonCache filmJsonCache, ObjectMapper objectMapper) {
+        this.eTagInterceptor = eTagInterceptor;
+        this.filmJsonCache = filmJsonCache;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(eTagInterceptor);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new FilmJsonMessageConverter(filmJsonCache, objectMapper));
+    }
+}
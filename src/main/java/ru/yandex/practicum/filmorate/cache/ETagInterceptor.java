@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.yandex.practicum.filmorate.index.FilmExistenceIndex;
+import ru.yandex.practicum.filmorate.index.UserExistenceIndex;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+
+// answers If-None-Match from version counters before the handler touches any storage
+@Component
+public class ETagInterceptor implements HandlerInterceptor {
+
+    private final VersionRegistry versionRegistry;
+    private final FilmExistenceIndex filmExistenceIndex;
+    private final UserExistenceIndex userExistenceIndex;
+    private final FilmJsonCache filmJsonCache;
+
+    public ETagInterceptor(VersionRegistry versionRegistry, FilmExistenceIndex filmExistenceIndex,
+                           UserExistenceIndex userExistenceIndex, FilmJsonCache filmJsonCache) {
+        this.versionRegistry = versionRegistry;
+        this.filmExistenceIndex = filmExistenceIndex;
+        this.userExistenceIndex = userExistenceIndex;
+        this.filmJsonCache = filmJsonCache;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        request.setAttribute(FilmJsonCache.GENERATION_ATTRIBUTE, filmJsonCache.generation());
+
+        String tag = tag(request);
+        if (tag == null) {
+            return true;
+        }
+        response.setHeader(HttpHeaders.ETAG, tag);
+        return !new ServletWebRequest(request, response).checkNotModified(tag);
+    }
+
+    private String tag(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return null;
+        }
+
+        switch (pattern.toString()) {
+            case "/films/popular":
+                return versionRegistry.filmsTag();
+            case "/films/{id}": {
+                Integer filmId = id(request);
+                return filmId != null && filmExistenceIndex.contains(filmId) ? versionRegistry.filmTag(filmId) : null;
+            }
+            case "/users/{id}/friends": {
+                Integer userId = id(request);
+                return userId != null && userExistenceIndex.contains(userId) ? versionRegistry.friendsTag(userId) : null;
+            }
+            default:
+                return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Integer id(HttpServletRequest request) {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        try {
+            return variables == null ? null : Integer.valueOf(variables.get("id"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
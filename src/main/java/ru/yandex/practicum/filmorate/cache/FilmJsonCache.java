@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// keeps the UTF-8 JSON of each film; an entry is valid while the film version it was serialized at is current
+@Component
+public class FilmJsonCache {
+
+    public static final String GENERATION_ATTRIBUTE = FilmJsonCache.class.getName() + ".generation";
+
+    private final VersionRegistry versionRegistry;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter withoutLikesWriter;
+    private final int maxEntries;
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    public FilmJsonCache(VersionRegistry versionRegistry, ObjectMapper objectMapper,
+                         @Value("${filmorate.json-cache.max-entries:100000}") int maxEntries) {
+        this.versionRegistry = versionRegistry;
+        this.objectMapper = objectMapper;
+        this.withoutLikesWriter = objectMapper.copy().addMixIn(Film.class, FilmWithoutLikes.class)
+                .writerFor(Film.class);
+        this.maxEntries = maxEntries;
+    }
+
+    // taken before the handler loads any film
+    public long generation() {
+        return versionRegistry.filmsVersion();
+    }
+
+    // a film changed after the request started may have been loaded before that change, so it is serialized
+    // but not cached; changes to other films don't matter
+    public byte[] toJson(Film film, Long generation) {
+        long version = versionRegistry.filmVersion(film.getId());
+        Entry entry = entries.get(film.getId());
+        if (entry != null && entry.version == version) {
+            return entry.json;
+        }
+
+        byte[] json = serialize(film);
+        if (generation != null && version <= generation
+                && (entry != null || entries.size() < maxEntries)) {
+            entries.put(film.getId(), new Entry(version, json));
+        }
+        return json;
+    }
+
+    // for clients that opt out of the like lists and only need likesCount; not cached
+    public byte[] toJsonWithoutLikes(Film film) {
+        try {
+            return withoutLikesWriter.writeValueAsBytes(film);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("film serialization failed", e);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private byte[] serialize(Film film) {
+        try {
+            return objectMapper.writeValueAsBytes(film);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("film serialization failed", e);
+        }
+    }
+
+    private abstract static class FilmWithoutLikes {
+        @JsonIgnore
+        private Set<Integer> likes;
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final byte[] json;
+
+        private Entry(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// writes films and film lists by concatenating cached JSON instead of running Jackson per response;
+// reading is left to the regular Jackson converter
+public class FilmJsonMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public static final String INCLUDE_LIKES_PARAMETER = "includeLikes";
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+
+    private final FilmJsonCache filmJsonCache;
+
+    public FilmJsonMessageConverter(FilmJsonCache filmJsonCache, ObjectMapper objectMapper) {
+        super(objectMapper);
+        setSupportedMediaTypes(List.of(MediaType.APPLICATION_JSON));
+        this.filmJsonCache = filmJsonCache;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return canWrite(null, clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (type == null) {
+            return Film.class.isAssignableFrom(clazz);
+        }
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> raw = resolved.resolve(clazz);
+        if (Collection.class.isAssignableFrom(raw) || Optional.class.equals(raw)) {
+            Class<?> element = resolved.getGeneric(0).resolve();
+            return element != null && Film.class.isAssignableFrom(element);
+        }
+        return Film.class.isAssignableFrom(raw);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        Long generation = generation();
+        boolean includeLikes = includeLikes();
+        OutputStream body = outputMessage.getBody();
+        if (value instanceof Collection) {
+            body.write('[');
+            boolean first = true;
+            for (Object film : (Collection<?>) value) {
+                if (!first) {
+                    body.write(',');
+                }
+                body.write(toJson((Film) film, generation, includeLikes));
+                first = false;
+            }
+            body.write(']');
+        } else if (value instanceof Optional) {
+            Optional<?> film = (Optional<?>) value;
+            body.write(film.isPresent() ? toJson((Film) film.get(), generation, includeLikes) : NULL);
+        } else {
+            body.write(toJson((Film) value, generation, includeLikes));
+        }
+    }
+
+    private byte[] toJson(Film film, Long generation, boolean includeLikes) {
+        return includeLikes ? filmJsonCache.toJson(film, generation) : filmJsonCache.toJsonWithoutLikes(film);
+    }
+
+    // likes are part of the response unless the client passes includeLikes=false
+    private static boolean includeLikes() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return !(attributes instanceof ServletRequestAttributes) || !"false".equalsIgnoreCase(
+                ((ServletRequestAttributes) attributes).getRequest().getParameter(INCLUDE_LIKES_PARAMETER));
+    }
+
+    private static Long generation() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (Long) attributes.getAttribute(FilmJsonCache.GENERATION_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "referencedata")
+@RequiredArgsConstructor
+public class ReferenceDataEndpoint {
+
+    private final ReferenceDataRegistry referenceDataRegistry;
+
+    @ReadOperation
+    public Map<String, Integer> sizes() {
+        return Map.of("genres", referenceDataRegistry.getGenres().size(),
+                "mpas", referenceDataRegistry.getMpas().size());
+    }
+
+    // POST /actuator/referencedata after genres or mpas were changed in the database
+    @WriteOperation
+    public Map<String, Integer> reload() {
+        referenceDataRegistry.reload();
+        return sizes();
+    }
+}
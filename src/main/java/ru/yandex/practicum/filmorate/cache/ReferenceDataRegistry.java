@@ -0,0 +1,141 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@Component
+public class ReferenceDataRegistry {
+
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+    private final ObjectMapper objectMapper;
+    private final VersionRegistry versionRegistry;
+    private final FilmJsonCache filmJsonCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Snapshot snapshot;
+
+    public ReferenceDataRegistry(GenreStorage genreStorage, MpaStorage mpaStorage, ObjectMapper objectMapper,
+                                 VersionRegistry versionRegistry, FilmJsonCache filmJsonCache,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.genreStorage = genreStorage;
+        this.mpaStorage = mpaStorage;
+        this.objectMapper = objectMapper;
+        this.versionRegistry = versionRegistry;
+        this.filmJsonCache = filmJsonCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void reload() {
+        List<Genre> genres = List.copyOf(genreStorage.getGenres());
+        List<Mpa> mpas = List.copyOf(mpaStorage.getMpas());
+
+        Genre[] genresById = new Genre[genres.stream().mapToInt(Genre::getId).max().orElse(0) + 1];
+        genres.forEach(genre -> genresById[genre.getId()] = genre);
+        Mpa[] mpasById = new Mpa[mpas.stream().mapToInt(Mpa::getId).max().orElse(0) + 1];
+        mpas.forEach(mpa -> mpasById[mpa.getId()] = mpa);
+
+        byte[] genresJson = toJson(genres);
+        byte[] mpasJson = toJson(mpas);
+        snapshot = new Snapshot(genres, genresById, genresJson, gzip(genresJson),
+                mpas, mpasById, mpasJson, gzip(mpasJson));
+        // cached film JSON and film tags embed genre and mpa names
+        versionRegistry.allFilmsChanged();
+        filmJsonCache.clear();
+        // lets storages holding films in memory swap in the new genre and mpa instances
+        eventPublisher.publishEvent(new ReferenceDataReloadedEvent());
+        log.info("reference data was loaded: genres {}, mpas {}", genres.size(), mpas.size());
+    }
+
+    public List<Genre> getGenres() {
+        return snapshot.genres;
+    }
+
+    public Genre getGenre(int id) {
+        Genre[] genresById = snapshot.genresById;
+        return id > 0 && id < genresById.length ? genresById[id] : null;
+    }
+
+    public byte[] getGenresJson() {
+        return snapshot.genresJson;
+    }
+
+    public byte[] getGenresGzip() {
+        return snapshot.genresGzip;
+    }
+
+    public List<Mpa> getMpas() {
+        return snapshot.mpas;
+    }
+
+    public Mpa getMpa(int id) {
+        Mpa[] mpasById = snapshot.mpasById;
+        return id > 0 && id < mpasById.length ? mpasById[id] : null;
+    }
+
+    public byte[] getMpasJson() {
+        return snapshot.mpasJson;
+    }
+
+    public byte[] getMpasGzip() {
+        return snapshot.mpasGzip;
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("reference data serialization failed", e);
+        }
+    }
+
+    // null when compression would not make the payload smaller
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length);
+        try (GZIPOutputStream output = new GZIPOutputStream(compressed)) {
+            output.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.size() < json.length ? compressed.toByteArray() : null;
+    }
+
+    private static final class Snapshot {
+        private final List<Genre> genres;
+        private final Genre[] genresById;
+        private final byte[] genresJson;
+        private final byte[] genresGzip;
+        private final List<Mpa> mpas;
+        private final Mpa[] mpasById;
+        private final byte[] mpasJson;
+        private final byte[] mpasGzip;
+
+        private Snapshot(List<Genre> genres, Genre[] genresById, byte[] genresJson, byte[] genresGzip,
+                         List<Mpa> mpas, Mpa[] mpasById, byte[] mpasJson, byte[] mpasGzip) {
+            this.genres = genres;
+            this.genresById = genresById;
+            this.genresJson = genresJson;
+            this.genresGzip = genresGzip;
+            this.mpas = mpas;
+            this.mpasById = mpasById;
+            this.mpasJson = mpasJson;
+            this.mpasGzip = mpasGzip;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package ru.yandex.practicum.filmorate.cache;
+
+public class ReferenceDataReloadedEvent {
+}
@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// versions are bumped after a mutation is stored, so a tag can be older than the body but never newer
+@Component
+public class VersionRegistry {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong filmsVersion = new AtomicLong();
+    private final AtomicLong usersVersion = new AtomicLong();
+    private final Map<Integer, Long> filmVersions = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> friendsVersions = new ConcurrentHashMap<>();
+    private volatile long allFilmsVersion;
+
+    public void filmsChanged() {
+        filmsVersion.incrementAndGet();
+    }
+
+    // a film's version is the films version of its last change, so it can be compared with a films version
+    // taken earlier: a film whose version is not newer has not changed since then
+    public void filmChanged(int filmId) {
+        filmVersions.merge(filmId, filmsVersion.incrementAndGet(), Math::max);
+    }
+
+    // every film counts as changed at this version, e.g. when the genre and mpa names they embed are reloaded
+    public void allFilmsChanged() {
+        allFilmsVersion = filmsVersion.incrementAndGet();
+    }
+
+    public void usersChanged() {
+        usersVersion.incrementAndGet();
+    }
+
+    public void friendsChanged(int userId) {
+        friendsVersions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    public long filmVersion(int filmId) {
+        return Math.max(filmVersions.getOrDefault(filmId, 0L), allFilmsVersion);
+    }
+
+    public long filmsVersion() {
+        return filmsVersion.get();
+    }
+
+    public String filmTag(int filmId) {
+        return tag("film-" + filmId, filmVersion(filmId));
+    }
+
+    public String filmsTag() {
+        return tag("films", filmsVersion.get());
+    }
+
+    public String friendsTag(int userId) {
+        return tag("friends-" + userId, version(friendsVersions, userId) + "." + usersVersion.get());
+    }
+
+    // weak, since server compression sends the same version both plain and gzipped
+    private String tag(String resource, Object version) {
+        return "W/\"" + resource + "-" + epoch + "-" + version + "\"";
+    }
+
+    private static long version(Map<Integer, AtomicLong> versions, int id) {
+        AtomicLong version = versions.get(id);
+        return version == null ? 0 : version.get();
+    }
+}
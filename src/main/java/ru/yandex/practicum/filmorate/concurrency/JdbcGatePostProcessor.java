@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.concurrency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.virtual-threads.enabled", havingValue = "true")
+public class JdbcGatePostProcessor implements BeanPostProcessor {
+
+    private final int permits;
+    private final long timeoutMs;
+    private JdbcGate jdbcGate;
+
+    public JdbcGatePostProcessor(
+            @Value("${filmorate.jdbc.gate.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${filmorate.jdbc.gate.timeout-ms:30000}") long timeoutMs) {
+        this.permits = permits;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || bean instanceof JdbcGate) {
+            return bean;
+        }
+        jdbcGate = new JdbcGate((DataSource) bean, permits, timeoutMs);
+        log.info("jdbc gate is enabled for data source {}, permits: {}", beanName, permits);
+        return jdbcGate;
+    }
+
+    public JdbcGate getJdbcGate() {
+        return jdbcGate;
+    }
+}
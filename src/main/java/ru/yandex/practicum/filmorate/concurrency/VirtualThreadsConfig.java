@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.concurrency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "filmorate.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadRequestExecutor() {
+        return protocolHandler -> VirtualThreads.newPerTaskExecutor().ifPresentOrElse(executor -> {
+            protocolHandler.setExecutor(executor);
+            log.info("requests are served on virtual threads");
+        }, () -> log.warn("virtual threads are not available on Java {}, requests stay on the platform pool",
+                System.getProperty("java.version")));
+    }
+}
@@ -1,9 +1,16 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.LikeResult;
+import ru.yandex.practicum.filmorate.model.MultiGetResult;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import java.util.List;
@@ -16,12 +23,34 @@ import java.util.Optional;
 public class FilmController {
 
     private final FilmService filmService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public List<Film> getFilms() {
         return filmService.getFilms();
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportFilms() {
+        return NdjsonStreams.of(objectMapper, filmService::streamFilms);
+    }
+
+    @GetMapping(params = {"ids", "!limit"})
+    public MultiGetResult<Film> getFilmsByIds(@RequestParam(name = "ids") List<Integer> ids) {
+        return filmService.getFilmsByIds(ids);
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<List<Film>> getFilms(@RequestParam(name = "after", defaultValue = "0") int after,
+                                               @RequestParam(name = "limit") int limit) {
+        return Pagination.page(filmService.getFilms(after, limit), limit, Film::getId);
+    }
+
+    @GetMapping(params = {"after", "!limit", "!ids"})
+    public ResponseEntity<List<Film>> getFilmsAfter() {
+        return Pagination.afterWithoutLimit();
+    }
+
     @PostMapping
     public Film createFilm(@RequestBody Film film) {
         return filmService.createFilm(film);
@@ -37,6 +66,16 @@ public class FilmController {
         return filmService.getFilmById(filmId);
     }
 
+    @GetMapping("/{id}/likes")
+    public int[] getLikes(@PathVariable("id") int filmId) {
+        return filmService.getLikes(filmId);
+    }
+
+    @GetMapping("/{id}/likes/count")
+    public int getLikesCount(@PathVariable("id") int filmId) {
+        return filmService.getLikesCount(filmId);
+    }
+
     @PutMapping("/{id}/like/{userId}")
     public void addLike(@PathVariable("id") int filmId, @PathVariable("userId") int userId) {
         filmService.addLike(filmId, userId);
@@ -47,8 +86,22 @@ public class FilmController {
         filmService.removeLike(filmId, userId);
     }
 
+    @PostMapping("/likes:batch")
+    public List<LikeResult> addLikes(@RequestBody(required = false) List<Like> likes) {
+        return filmService.addLikes(likes);
+    }
+
+    @GetMapping("/search")
+    public List<Film> searchFilms(@RequestParam(name = "q") String query,
+                                  @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        return filmService.searchFilms(query, limit);
+    }
+
     @GetMapping("/popular")
-    public List<Film> getPopularFilms(@RequestParam(name = "count", defaultValue = "10") int count) {
-        return filmService.getPopularFilms(count);
+    public List<Film> getPopularFilms(@RequestParam(name = "count", defaultValue = "10") int count,
+                                      @RequestParam(name = "genreId", required = false) Integer genreId,
+                                      @RequestParam(name = "mpaId", required = false) Integer mpaId,
+                                      @RequestParam(name = "year", required = false) Integer year) {
+        return filmService.getPopularFilms(count, genreId, mpaId, year);
     }
 }
@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportChunkResult;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.io.InputStream;
+import java.util.List;
+
+// bodies are read straight from the request stream, never buffered as a whole
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class ImportController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final FilmService filmService;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(value = "/films:import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public List<ImportChunkResult> importFilms(InputStream body) {
+        return filmService.importFilms(ImportReaders.ndjson(body, objectMapper, Film.class));
+    }
+
+    @PostMapping(value = "/films:import", consumes = TEXT_CSV_VALUE)
+    public List<ImportChunkResult> importFilmsCsv(InputStream body) {
+        return filmService.importFilms(ImportReaders.filmsCsv(body));
+    }
+
+    @PostMapping(value = "/users:import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public List<ImportChunkResult> importUsers(InputStream body) {
+        return userService.importUsers(ImportReaders.ndjson(body, objectMapper, User.class));
+    }
+
+    @PostMapping(value = "/users:import", consumes = TEXT_CSV_VALUE)
+    public List<ImportChunkResult> importUsersCsv(InputStream body) {
+        return userService.importUsers(ImportReaders.usersCsv(body));
+    }
+}
@@ -0,0 +1,193 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.ImportRecord;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+final class ImportReaders {
+
+    private static final List<String> FILM_COLUMNS = List.of("name", "description", "releaseDate", "duration", "mpa");
+    private static final List<String> USER_COLUMNS = List.of("email", "login", "birthday");
+
+    private ImportReaders() {
+    }
+
+    static <T> Iterator<ImportRecord<T>> ndjson(InputStream body, ObjectMapper objectMapper, Class<T> type) {
+        return new LineIterator<>(reader(body), 0, line -> objectMapper.readValue(line, type));
+    }
+
+    static Iterator<ImportRecord<Film>> filmsCsv(InputStream body) {
+        return csv(body, FILM_COLUMNS, row -> Film.builder()
+                .name(row.get("name"))
+                .description(row.get("description"))
+                .releaseDate(LocalDate.parse(row.get("releaseDate")))
+                .duration(Long.parseLong(row.get("duration")))
+                .rate(row.getOrDefault("rate", "").isEmpty() ? 0 : Integer.parseInt(row.get("rate")))
+                .mpa(new Mpa(Integer.parseInt(row.get("mpa")), null))
+                .genres(genres(row.getOrDefault("genres", "")))
+                .build());
+    }
+
+    static Iterator<ImportRecord<User>> usersCsv(InputStream body) {
+        return csv(body, USER_COLUMNS, row -> User.builder()
+                .email(row.get("email"))
+                .login(row.get("login"))
+                .name(row.get("name"))
+                .birthday(LocalDate.parse(row.get("birthday")))
+                .build());
+    }
+
+    private static Set<Genre> genres(String value) {
+        if (value.isEmpty()) {
+            return Set.of();
+        }
+        return Arrays.stream(value.split(";"))
+                .map(genreId -> new Genre(Integer.parseInt(genreId.trim()), null))
+                .collect(Collectors.toSet());
+    }
+
+    private static <T> Iterator<ImportRecord<T>> csv(InputStream body, List<String> requiredColumns,
+                                                     Function<Map<String, String>, T> mapper) {
+        BufferedReader reader = reader(body);
+        List<String> header;
+        try {
+            String line = reader.readLine();
+            header = line == null ? List.of() : split(line.replace("\uFEFF", ""));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!header.containsAll(requiredColumns)) {
+            log.error("import error: csv header {} doesn't contain columns {}.", header, requiredColumns);
+            throw new ValidationException(String.format("CSV header must contain columns: %s.",
+                    String.join(",", requiredColumns)));
+        }
+
+        return new LineIterator<>(reader, 1, line -> {
+            List<String> values = split(line);
+            if (values.size() != header.size()) {
+                throw new IllegalArgumentException(String.format("expected %s columns, found %s.",
+                        header.size(), values.size()));
+            }
+            Map<String, String> row = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                row.put(header.get(i), values.get(i));
+            }
+            return mapper.apply(row);
+        });
+    }
+
+    // quoted values may contain commas and doubled quotes, but not line breaks
+    private static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString().trim());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString().trim());
+        return values;
+    }
+
+    private static BufferedReader reader(InputStream body) {
+        return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    @FunctionalInterface
+    private interface LineParser<T> {
+        T parse(String line) throws JsonProcessingException;
+    }
+
+    // reads the body lazily so that only the current line is held in memory, blank lines are skipped
+    private static final class LineIterator<T> implements Iterator<ImportRecord<T>> {
+
+        private final BufferedReader reader;
+        private final LineParser<T> parser;
+        private int lineNumber;
+        private String next;
+
+        private LineIterator(BufferedReader reader, int lineNumber, LineParser<T> parser) {
+            this.reader = reader;
+            this.lineNumber = lineNumber;
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                    lineNumber++;
+                    if (!line.isBlank()) {
+                        next = line;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public ImportRecord<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String line = next;
+            next = null;
+            try {
+                return ImportRecord.of(lineNumber, parser.parse(line));
+            } catch (JsonProcessingException e) {
+                return ImportRecord.failed(lineNumber, e.getOriginalMessage());
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                return ImportRecord.failed(lineNumber, e.getMessage());
+            }
+        }
+    }
+}
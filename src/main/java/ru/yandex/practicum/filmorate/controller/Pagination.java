@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+@Slf4j
+final class Pagination {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private Pagination() {
+    }
+
+    static <T> ResponseEntity<List<T>> page(List<T> items, int limit, ToIntFunction<T> idExtractor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!items.isEmpty() && items.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(idExtractor.applyAsInt(items.get(items.size() - 1))));
+        }
+        return response.body(items);
+    }
+
+    // a cursor without a page size would otherwise fall through to the unpaged list
+    static <T> ResponseEntity<List<T>> afterWithoutLimit() {
+        log.error("pagination error: parameter after was passed without limit.");
+        throw new ValidationException("parameter after requires limit.");
+    }
+}
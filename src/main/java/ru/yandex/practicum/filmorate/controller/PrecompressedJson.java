@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Locale;
+
+final class PrecompressedJson {
+
+    private static final String GZIP = "gzip";
+
+    private PrecompressedJson() {
+    }
+
+    // a response that already carries Content-Encoding is left alone by the container compression
+    static ResponseEntity<byte[]> of(byte[] json, byte[] gzip, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip != null && acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(gzip);
+        }
+        return response.body(json);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equals(GZIP) && !name.equals("*")) {
+                continue;
+            }
+            boolean rejected = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+            return !rejected;
+        }
+        return false;
+    }
+}
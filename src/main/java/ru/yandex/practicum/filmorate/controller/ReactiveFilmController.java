@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.ReactiveFilmService;
+
+@Slf4j
+@RestController
+@RequestMapping("/reactive/films")
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "filmorate.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReactiveFilmController {
+
+    private final ReactiveFilmService filmService;
+
+    @GetMapping("/{id}")
+    public Mono<Film> getFilm(@PathVariable("id") int filmId) {
+        return filmService.getFilmById(filmId);
+    }
+
+    @GetMapping(value = "/popular", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Film> getPopularFilms(@RequestParam(name = "count", defaultValue = "10") int count) {
+        return filmService.getPopularFilms(count);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.ReactiveUserService;
+
+@Slf4j
+@RestController
+@RequestMapping("/reactive/users")
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "filmorate.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    @GetMapping(value = "/{id}/friends",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<User> getFriends(@PathVariable("id") int userId) {
+        return userService.getFriends(userId);
+    }
+
+    @GetMapping(value = "/{id}/friends/common/{otherId}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<User> getCommonFriends(@PathVariable("id") int userId, @PathVariable("otherId") int otherId) {
+        return userService.getCommonFriends(userId, otherId);
+    }
+}
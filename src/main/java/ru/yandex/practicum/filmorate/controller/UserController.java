@@ -1,9 +1,16 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MultiGetResult;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.RecommendationService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import javax.validation.Valid;
@@ -17,12 +24,35 @@ import java.util.Optional;
 public class UserController {
 
     private final UserService userService;
+    private final RecommendationService recommendationService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public List<User> getUsers() {
         return userService.getUsers();
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportUsers() {
+        return NdjsonStreams.of(objectMapper, userService::streamUsers);
+    }
+
+    @GetMapping(params = {"ids", "!limit"})
+    public MultiGetResult<User> getUsersByIds(@RequestParam(name = "ids") List<Integer> ids) {
+        return userService.getUsersByIds(ids);
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<List<User>> getUsers(@RequestParam(name = "after", defaultValue = "0") int after,
+                                               @RequestParam(name = "limit") int limit) {
+        return Pagination.page(userService.getUsers(after, limit), limit, User::getId);
+    }
+
+    @GetMapping(params = {"after", "!limit", "!ids"})
+    public ResponseEntity<List<User>> getUsersAfter() {
+        return Pagination.afterWithoutLimit();
+    }
+
     @PostMapping
     public User createUser(@Valid @RequestBody User user) {
         return userService.createUser(user);
@@ -53,8 +83,32 @@ public class UserController {
         return userService.getFriends(userId);
     }
 
+    @GetMapping(path = "/{id}/friends", params = "limit")
+    public ResponseEntity<List<User>> getFriends(@PathVariable("id") int userId,
+                                                 @RequestParam(name = "after", defaultValue = "0") int after,
+                                                 @RequestParam(name = "limit") int limit) {
+        return Pagination.page(userService.getFriends(userId, after, limit), limit, User::getId);
+    }
+
+    @GetMapping(path = "/{id}/friends", params = {"after", "!limit"})
+    public ResponseEntity<List<User>> getFriendsAfter(@PathVariable("id") int userId) {
+        return Pagination.afterWithoutLimit();
+    }
+
+    @GetMapping("/{id}/friends/suggestions")
+    public List<User> getFriendSuggestions(@PathVariable("id") int userId,
+                                           @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return userService.getFriendSuggestions(userId, limit);
+    }
+
     @GetMapping("/{id}/friends/common/{otherId}")
     public List<User> getCommonFriends(@PathVariable("id") int userId, @PathVariable("otherId") int otherId) {
         return userService.getCommonFriends(userId, otherId);
     }
+
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendations(@PathVariable("id") int userId,
+                                         @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return recommendationService.getRecommendations(userId, limit);
+    }
 }
@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.index;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public abstract class ExistenceIndex {
+
+    private static final int INITIAL_WORDS = 64;
+    private static final int MAX_MISSES = 10_000;
+
+    private final ReadWriteLock resizeLock = new ReentrantReadWriteLock();
+    private final Set<Integer> misses = ConcurrentHashMap.newKeySet();
+    private volatile AtomicLongArray words = new AtomicLongArray(INITIAL_WORDS);
+
+    @PostConstruct
+    public void rebuild() {
+        resizeLock.writeLock().lock();
+        try {
+            words = new AtomicLongArray(INITIAL_WORDS);
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+        misses.clear();
+        loadIds().forEach(this::add);
+    }
+
+    public boolean contains(int id) {
+        if (id <= 0) {
+            return false;
+        }
+        if (isSet(id)) {
+            return true;
+        }
+        if (misses.contains(id)) {
+            return false;
+        }
+        if (lookup(id)) {
+            add(id);
+            return true;
+        }
+        if (misses.size() >= MAX_MISSES) {
+            misses.clear();
+        }
+        misses.add(id);
+        return false;
+    }
+
+    public void add(int id) {
+        if (id <= 0) {
+            return;
+        }
+        int word = id >>> 6;
+        if (word >= words.length()) {
+            grow(word);
+        }
+        resizeLock.readLock().lock();
+        try {
+            setBit(words, word, 1L << id);
+        } finally {
+            resizeLock.readLock().unlock();
+        }
+        misses.remove(id);
+    }
+
+    protected abstract List<Integer> loadIds();
+
+    protected abstract boolean lookup(int id);
+
+    private boolean isSet(int id) {
+        int word = id >>> 6;
+        AtomicLongArray current = words;
+        return word < current.length() && (current.get(word) & (1L << id)) != 0;
+    }
+
+    private void grow(int word) {
+        resizeLock.writeLock().lock();
+        try {
+            AtomicLongArray current = words;
+            if (word >= current.length()) {
+                AtomicLongArray grown = new AtomicLongArray(Math.max(word + 1, current.length() * 2));
+                for (int i = 0; i < current.length(); i++) {
+                    grown.set(i, current.get(i));
+                }
+                words = grown;
+            }
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+
+    private static void setBit(AtomicLongArray array, int word, long mask) {
+        long value;
+        do {
+            value = array.get(word);
+        } while ((value & mask) == 0 && !array.compareAndSet(word, value, value | mask));
+    }
+}
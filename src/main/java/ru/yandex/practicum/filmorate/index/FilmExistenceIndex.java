@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.List;
+
+@Component
+public class FilmExistenceIndex extends ExistenceIndex {
+
+    private final FilmStorage filmStorage;
+
+    public FilmExistenceIndex(FilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+    }
+
+    @Override
+    protected List<Integer> loadIds() {
+        return filmStorage.getFilmIds();
+    }
+
+    @Override
+    protected boolean lookup(int id) {
+        return filmStorage.existsById(id);
+    }
+}
@@ -0,0 +1,203 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class FilmLeaderboards {
+
+    private static final int NONE = 0;
+
+    private final FilmStorage filmStorage;
+    private final Map<Integer, Facets> facetsByFilm = new HashMap<>();
+    private final Map<Integer, NavigableSet<Long>> byGenre = new HashMap<>();
+    private final Map<Integer, NavigableSet<Long>> byMpa = new HashMap<>();
+    private final Map<Integer, NavigableSet<Long>> byYear = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public FilmLeaderboards(FilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            facetsByFilm.clear();
+            byGenre.clear();
+            byMpa.clear();
+            byYear.clear();
+            filmStorage.streamFilms(film -> link(film.getId(), facets(film)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("film leaderboards were rebuilt, films: {}, genres: {}, mpas: {}, years: {}",
+                facetsByFilm.size(), byGenre.size(), byMpa.size(), byYear.size());
+    }
+
+    public void put(Film film) {
+        Facets facets = facets(film);
+        lock.writeLock().lock();
+        try {
+            unlink(film.getId());
+            link(film.getId(), facets);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void likeAdded(int filmId) {
+        shift(filmId, 1);
+    }
+
+    public void likeRemoved(int filmId) {
+        shift(filmId, -1);
+    }
+
+    // leapfrog intersection: every segment shares the global rank order, so a film matches all
+    // facets exactly when every segment holds its rank
+    public List<Integer> top(int count, Integer genreId, Integer mpaId, Integer year) {
+        lock.readLock().lock();
+        try {
+            List<NavigableSet<Long>> segments = new ArrayList<>(3);
+            if (!addSegment(segments, byGenre, genreId) || !addSegment(segments, byMpa, mpaId)
+                    || !addSegment(segments, byYear, year)) {
+                return List.of();
+            }
+            segments.sort(Comparator.comparingInt(NavigableSet::size));
+
+            NavigableSet<Long> smallest = segments.get(0);
+            List<Integer> filmIds = new ArrayList<>(Math.min(count, smallest.size()));
+            Long candidate = smallest.isEmpty() ? null : smallest.first();
+            while (candidate != null && filmIds.size() < count) {
+                Long aligned = candidate;
+                for (NavigableSet<Long> segment : segments) {
+                    Long next = segment.ceiling(candidate);
+                    if (next == null) {
+                        return filmIds;
+                    }
+                    if (!next.equals(candidate)) {
+                        aligned = null;
+                        candidate = next;
+                        break;
+                    }
+                }
+                if (aligned != null) {
+                    filmIds.add((int) (long) aligned);
+                    candidate = smallest.higher(aligned);
+                }
+            }
+            return filmIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void shift(int filmId, int delta) {
+        lock.writeLock().lock();
+        try {
+            Facets facets = unlink(filmId);
+            if (facets != null) {
+                link(filmId, facets.withLikes(Math.max(0, facets.likes + delta)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void link(int filmId, Facets facets) {
+        long rank = rank(filmId, facets.likes);
+        facetsByFilm.put(filmId, facets);
+        for (int genreId : facets.genreIds) {
+            byGenre.computeIfAbsent(genreId, id -> new TreeSet<>()).add(rank);
+        }
+        if (facets.mpaId != NONE) {
+            byMpa.computeIfAbsent(facets.mpaId, id -> new TreeSet<>()).add(rank);
+        }
+        if (facets.year != NONE) {
+            byYear.computeIfAbsent(facets.year, id -> new TreeSet<>()).add(rank);
+        }
+    }
+
+    private Facets unlink(int filmId) {
+        Facets facets = facetsByFilm.remove(filmId);
+        if (facets == null) {
+            return null;
+        }
+        long rank = rank(filmId, facets.likes);
+        for (int genreId : facets.genreIds) {
+            removeRank(byGenre, genreId, rank);
+        }
+        removeRank(byMpa, facets.mpaId, rank);
+        removeRank(byYear, facets.year, rank);
+        return facets;
+    }
+
+    private static void removeRank(Map<Integer, NavigableSet<Long>> segments, int key, long rank) {
+        NavigableSet<Long> segment = segments.get(key);
+        if (segment != null && segment.remove(rank) && segment.isEmpty()) {
+            segments.remove(key);
+        }
+    }
+
+    private static boolean addSegment(List<NavigableSet<Long>> segments,
+                                      Map<Integer, NavigableSet<Long>> facet, Integer key) {
+        if (key == null) {
+            return true;
+        }
+        NavigableSet<Long> segment = facet.get(key);
+        if (segment == null) {
+            return false;
+        }
+        segments.add(segment);
+        return true;
+    }
+
+    private static Facets facets(Film film) {
+        int[] genreIds = film.getGenres() == null ? new int[0] : film.getGenres().stream()
+                .mapToInt(Genre::getId)
+                .distinct()
+                .toArray();
+        int mpaId = film.getMpa() == null || film.getMpa().getId() == null ? NONE : film.getMpa().getId();
+        int year = film.getReleaseDate() == null ? NONE : film.getReleaseDate().getYear();
+        return new Facets(film.getLikesCount(), genreIds, mpaId, year);
+    }
+
+    // likes descending, then film id ascending
+    private static long rank(int filmId, int likes) {
+        return ((long) (Integer.MAX_VALUE - likes) << 32) | filmId;
+    }
+
+    private static final class Facets {
+        private final int likes;
+        private final int[] genreIds;
+        private final int mpaId;
+        private final int year;
+
+        private Facets(int likes, int[] genreIds, int mpaId, int year) {
+            this.likes = likes;
+            this.genreIds = genreIds;
+            this.mpaId = mpaId;
+            this.year = year;
+        }
+
+        private Facets withLikes(int updatedLikes) {
+            return new Facets(updatedLikes, genreIds, mpaId, year);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class FilmSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int SCALE = 1000;
+
+    private final FilmStorage filmStorage;
+    private final Map<String, int[]> postings = new HashMap<>();
+    private final Map<Integer, Map<String, Integer>> termsByFilm = new HashMap<>();
+    private final Map<Integer, Integer> likesByFilm = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public FilmSearchIndex(FilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Map<String, SortedIntArrays.Buffer> buffers = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByFilm.clear();
+            likesByFilm.clear();
+            filmStorage.streamFilms(film -> {
+                Map<String, Integer> terms = terms(film);
+                termsByFilm.put(film.getId(), terms);
+                likesByFilm.put(film.getId(), film.getLikesCount());
+                terms.keySet().forEach(term ->
+                        buffers.computeIfAbsent(term, key -> new SortedIntArrays.Buffer()).add(film.getId()));
+            });
+            buffers.forEach((term, buffer) -> postings.put(term, buffer.toSortedArray()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("film search index was rebuilt, films: {}, terms: {}", termsByFilm.size(), postings.size());
+    }
+
+    public void put(Film film) {
+        putAll(List.of(film));
+    }
+
+    // new postings are merged into each term's array once per call, so bulk imports don't copy it per film
+    public void putAll(Collection<Film> films) {
+        Map<Integer, Map<String, Integer>> termsById = new HashMap<>();
+        films.forEach(film -> termsById.put(film.getId(), terms(film)));
+        Map<String, SortedIntArrays.Buffer> added = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            termsById.forEach((filmId, terms) -> {
+                Map<String, Integer> previous = termsByFilm.put(filmId, terms);
+                if (previous != null) {
+                    previous.keySet().forEach(term -> postings.computeIfPresent(term, (key, ids) -> {
+                        int[] updated = SortedIntArrays.remove(ids, filmId);
+                        return updated.length == 0 ? null : updated;
+                    }));
+                }
+                terms.keySet().forEach(term ->
+                        added.computeIfAbsent(term, key -> new SortedIntArrays.Buffer()).add(filmId));
+            });
+            added.forEach((term, buffer) -> postings.merge(term, buffer.toSortedArray(), SortedIntArrays::union));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        films.forEach(film -> likesByFilm.put(film.getId(), film.getLikesCount()));
+    }
+
+    public void likeAdded(int filmId) {
+        likesByFilm.merge(filmId, 1, Integer::sum);
+    }
+
+    public void likeRemoved(int filmId) {
+        likesByFilm.computeIfPresent(filmId, (id, likes) -> Math.max(0, likes - 1));
+    }
+
+    // every query term must match; score is tf-idf relevance boosted by the log of the like count
+    public int[] search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(SearchTokenizer.tokenize(query));
+        if (queryTerms.isEmpty()) {
+            return SortedIntArrays.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            int[][] lists = new int[queryTerms.size()][];
+            int i = 0;
+            for (String term : queryTerms) {
+                lists[i] = postings.get(term);
+                if (lists[i++] == null) {
+                    return SortedIntArrays.EMPTY;
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(ids -> ids.length));
+
+            int[] candidates = lists[0];
+            for (int j = 1; j < lists.length && candidates.length > 0; j++) {
+                candidates = SortedIntArrays.intersect(candidates, lists[j]);
+            }
+
+            Map<String, Double> idf = new HashMap<>();
+            for (String term : queryTerms) {
+                idf.put(term, Math.log(1 + (double) termsByFilm.size() / postings.get(term).length));
+            }
+
+            PriorityQueue<Long> top = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+            for (int filmId : candidates) {
+                Map<String, Integer> terms = termsByFilm.get(filmId);
+                double relevance = 0;
+                for (String term : queryTerms) {
+                    relevance += terms.get(term) * idf.get(term);
+                }
+                double score = relevance * (1 + Math.log1p(likesByFilm.getOrDefault(filmId, 0)));
+                top.add(rank(filmId, (int) Math.min(Integer.MAX_VALUE, score * SCALE)));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            int[] result = new int[top.size()];
+            for (int j = result.length - 1; j >= 0; j--) {
+                result[j] = (int) (long) top.poll();
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<String, Integer> terms(Film film) {
+        Map<String, Integer> terms = new HashMap<>();
+        SearchTokenizer.tokenize(film.getName()).forEach(term -> terms.merge(term, NAME_WEIGHT, Integer::sum));
+        SearchTokenizer.tokenize(film.getDescription())
+                .forEach(term -> terms.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        return terms;
+    }
+
+    // score descending, then film id ascending
+    private static long rank(int filmId, int score) {
+        return ((long) (Integer.MAX_VALUE - score) << 32) | filmId;
+    }
+}
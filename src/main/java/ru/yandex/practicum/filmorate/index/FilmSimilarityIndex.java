@@ -0,0 +1,379 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class FilmSimilarityIndex {
+
+    private static final int MAX_NEIGHBOURS = 20;
+    private static final int MAX_FAN_OUT = 1000;
+    private static final int PARTITION_SIZE = 64;
+    private static final int RECOMPUTE_BATCH_SIZE = 16;
+    private static final int SCALE = 1_000_000;
+    private static final Neighbours NO_NEIGHBOURS = new Neighbours(new int[0], new int[0]);
+
+    private final FilmStorage filmStorage;
+    private final Map<Integer, RoaringBitmap> usersByFilm = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> filmsByUser = new HashMap<>();
+    private final Map<Integer, Neighbours> neighboursByFilm = new ConcurrentHashMap<>();
+    private final Set<Integer> dirtyFilms = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean recomputeScheduled = new AtomicBoolean();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Executor recomputeExecutor;
+
+    @Autowired
+    public FilmSimilarityIndex(FilmStorage filmStorage) {
+        this(filmStorage, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "film-similarity");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    FilmSimilarityIndex(FilmStorage filmStorage, Executor recomputeExecutor) {
+        this.filmStorage = filmStorage;
+        this.recomputeExecutor = recomputeExecutor;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (recomputeExecutor instanceof ExecutorService) {
+            ((ExecutorService) recomputeExecutor).shutdownNow();
+        }
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            usersByFilm.clear();
+            filmsByUser.clear();
+            neighboursByFilm.clear();
+            dirtyFilms.clear();
+            filmStorage.streamLikes(this::link);
+
+            int[] filmIds = usersByFilm.keySet().stream().mapToInt(Integer::intValue).toArray();
+            ForkJoinPool.commonPool().invoke(new NeighboursTask(filmIds, 0, filmIds.length));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("film similarity index was rebuilt, films: {}, users: {}",
+                neighboursByFilm.size(), filmsByUser.size());
+    }
+
+    public void likeAdded(int filmId, int userId) {
+        lock.writeLock().lock();
+        try {
+            if (link(filmId, userId)) {
+                likesChanged(filmId, userId, true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleRecompute();
+    }
+
+    public void likeRemoved(int filmId, int userId) {
+        lock.writeLock().lock();
+        try {
+            if (unlink(filmId, userId)) {
+                likesChanged(filmId, userId, false);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleRecompute();
+    }
+
+    // the diff is read and applied under one write lock, so concurrent puts of the same film can't interleave
+    public void putLikes(int filmId, Collection<Integer> userIds) {
+        RoaringBitmap updated = new RoaringBitmap();
+        userIds.forEach(updated::add);
+
+        lock.writeLock().lock();
+        try {
+            RoaringBitmap current = usersByFilm.getOrDefault(filmId, new RoaringBitmap()).clone();
+            RoaringBitmap.andNot(current, updated).forEach((int userId) -> {
+                if (unlink(filmId, userId)) {
+                    likesChanged(filmId, userId, false);
+                }
+            });
+            RoaringBitmap.andNot(updated, current).forEach((int userId) -> {
+                if (link(filmId, userId)) {
+                    likesChanged(filmId, userId, true);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleRecompute();
+    }
+
+    public int[] neighbours(int filmId) {
+        return neighboursByFilm.getOrDefault(filmId, NO_NEIGHBOURS).filmIds.clone();
+    }
+
+    public int[] recommend(int userId, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap liked = filmsByUser.get(userId);
+            if (liked == null) {
+                return new int[0];
+            }
+
+            IntCounter scores = new IntCounter(Math.min(liked.getCardinality(), MAX_FAN_OUT) * MAX_NEIGHBOURS);
+            IntIterator films = liked.getIntIterator();
+            for (int scanned = 0; scanned < MAX_FAN_OUT && films.hasNext(); scanned++) {
+                Neighbours neighbours = neighboursByFilm.getOrDefault(films.next(), NO_NEIGHBOURS);
+                for (int i = 0; i < neighbours.filmIds.length; i++) {
+                    if (!liked.contains(neighbours.filmIds[i])) {
+                        scores.add(neighbours.filmIds[i], neighbours.scores[i]);
+                    }
+                }
+            }
+            return top(scores, limit).filmIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // only cheap pairwise updates run under the write lock, full recomputes are left to the background batches
+    private void likesChanged(int filmId, int userId, boolean added) {
+        dirtyFilms.add(filmId);
+
+        RoaringBitmap films = filmsByUser.get(userId);
+        if (films == null) {
+            return;
+        }
+        IntIterator iterator = films.getIntIterator();
+        for (int scanned = 0; scanned < MAX_FAN_OUT && iterator.hasNext(); scanned++) {
+            int otherId = iterator.next();
+            if (otherId == filmId) {
+                continue;
+            }
+            Neighbours neighbours = neighboursByFilm.getOrDefault(otherId, NO_NEIGHBOURS);
+            if (added) {
+                neighboursByFilm.put(otherId, neighbours.with(filmId, similarity(otherId, filmId)));
+            } else if (neighbours.contains(filmId)) {
+                dirtyFilms.add(otherId);
+            }
+        }
+    }
+
+    private void scheduleRecompute() {
+        if (!dirtyFilms.isEmpty() && recomputeScheduled.compareAndSet(false, true)) {
+            recomputeExecutor.execute(this::recomputeDirty);
+        }
+    }
+
+    // a film is taken out of the dirty set before the read lock, so a change made meanwhile marks it again
+    private void recomputeDirty() {
+        int[] batch = new int[RECOMPUTE_BATCH_SIZE];
+        while (true) {
+            int size = 0;
+            Iterator<Integer> iterator = dirtyFilms.iterator();
+            while (size < batch.length && iterator.hasNext()) {
+                batch[size++] = iterator.next();
+                iterator.remove();
+            }
+            if (size == 0) {
+                recomputeScheduled.set(false);
+                if (dirtyFilms.isEmpty() || !recomputeScheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            lock.readLock().lock();
+            try {
+                for (int i = 0; i < size; i++) {
+                    neighboursByFilm.put(batch[i], computeNeighbours(batch[i]));
+                }
+            } catch (RuntimeException e) {
+                log.error("film similarity recompute failed: {}", e.getMessage());
+                recomputeScheduled.set(false);
+                throw e;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    private Neighbours computeNeighbours(int filmId) {
+        RoaringBitmap users = usersByFilm.get(filmId);
+        if (users == null) {
+            return NO_NEIGHBOURS;
+        }
+
+        IntCounter coLikes = new IntCounter(256);
+        IntIterator userIterator = users.getIntIterator();
+        for (int scannedUsers = 0; scannedUsers < MAX_FAN_OUT && userIterator.hasNext(); scannedUsers++) {
+            IntIterator filmIterator = filmsByUser.get(userIterator.next()).getIntIterator();
+            for (int scannedFilms = 0; scannedFilms < MAX_FAN_OUT && filmIterator.hasNext(); scannedFilms++) {
+                int otherId = filmIterator.next();
+                if (otherId != filmId) {
+                    coLikes.increment(otherId);
+                }
+            }
+        }
+
+        int likes = users.getCardinality();
+        IntCounter similarities = new IntCounter(256);
+        coLikes.forEach((otherId, common) ->
+                similarities.add(otherId, cosine(common, likes, usersByFilm.get(otherId).getCardinality())));
+        return top(similarities, MAX_NEIGHBOURS);
+    }
+
+    private int similarity(int filmId, int otherId) {
+        RoaringBitmap users = usersByFilm.get(filmId);
+        RoaringBitmap otherUsers = usersByFilm.get(otherId);
+        if (users == null || otherUsers == null) {
+            return 0;
+        }
+        return cosine(RoaringBitmap.andCardinality(users, otherUsers),
+                users.getCardinality(), otherUsers.getCardinality());
+    }
+
+    private boolean link(int filmId, int userId) {
+        filmsByUser.computeIfAbsent(userId, id -> new RoaringBitmap()).add(filmId);
+        return usersByFilm.computeIfAbsent(filmId, id -> new RoaringBitmap()).checkedAdd(userId);
+    }
+
+    private boolean unlink(int filmId, int userId) {
+        RoaringBitmap users = usersByFilm.get(filmId);
+        if (users == null || !users.checkedRemove(userId)) {
+            return false;
+        }
+        if (users.isEmpty()) {
+            usersByFilm.remove(filmId);
+        }
+        RoaringBitmap films = filmsByUser.get(userId);
+        films.remove(filmId);
+        if (films.isEmpty()) {
+            filmsByUser.remove(userId);
+        }
+        return true;
+    }
+
+    private static int cosine(int common, int likes, int otherLikes) {
+        return (int) ((double) SCALE * common / Math.sqrt((double) likes * otherLikes));
+    }
+
+    private static Neighbours top(IntCounter scores, int limit) {
+        PriorityQueue<Long> top = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        scores.forEach((filmId, score) -> {
+            if (score > 0) {
+                top.add(rank(filmId, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        });
+
+        int[] filmIds = new int[top.size()];
+        int[] topScores = new int[top.size()];
+        for (int i = filmIds.length - 1; i >= 0; i--) {
+            long rank = top.poll();
+            filmIds[i] = (int) rank;
+            topScores[i] = Integer.MAX_VALUE - (int) (rank >>> 32);
+        }
+        return new Neighbours(filmIds, topScores);
+    }
+
+    // score descending, then film id ascending
+    private static long rank(int filmId, int score) {
+        return ((long) (Integer.MAX_VALUE - score) << 32) | filmId;
+    }
+
+    private static final class Neighbours {
+        private final int[] filmIds;
+        private final int[] scores;
+
+        private Neighbours(int[] filmIds, int[] scores) {
+            this.filmIds = filmIds;
+            this.scores = scores;
+        }
+
+        private boolean contains(int filmId) {
+            for (int id : filmIds) {
+                if (id == filmId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Neighbours with(int filmId, int score) {
+            long[] ranks = new long[filmIds.length + 1];
+            int size = 0;
+            for (int i = 0; i < filmIds.length; i++) {
+                if (filmIds[i] != filmId) {
+                    ranks[size++] = rank(filmIds[i], scores[i]);
+                }
+            }
+            if (score > 0) {
+                ranks[size++] = rank(filmId, score);
+            }
+            Arrays.sort(ranks, 0, size);
+            size = Math.min(size, MAX_NEIGHBOURS);
+
+            int[] updatedIds = new int[size];
+            int[] updatedScores = new int[size];
+            for (int i = 0; i < size; i++) {
+                updatedIds[i] = (int) ranks[i];
+                updatedScores[i] = Integer.MAX_VALUE - (int) (ranks[i] >>> 32);
+            }
+            return new Neighbours(updatedIds, updatedScores);
+        }
+    }
+
+    private final class NeighboursTask extends RecursiveAction {
+        private final int[] filmIds;
+        private final int from;
+        private final int to;
+
+        private NeighboursTask(int[] filmIds, int from, int to) {
+            this.filmIds = filmIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARTITION_SIZE) {
+                for (int i = from; i < to; i++) {
+                    neighboursByFilm.put(filmIds[i], computeNeighbours(filmIds[i]));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new NeighboursTask(filmIds, from, middle), new NeighboursTask(filmIds, middle, to));
+        }
+    }
+}
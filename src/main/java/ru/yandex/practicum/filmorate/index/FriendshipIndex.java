@@ -0,0 +1,163 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+public class FriendshipIndex {
+
+    private static final int BITMAP_DEGREE = 1024;
+    private static final int MAX_FAN_OUT = 1000;
+    private static final int[] NO_FRIENDS = SortedIntArrays.EMPTY;
+
+    private final UserStorage userStorage;
+    private final Map<Integer, Adjacency> friendsByUser = new ConcurrentHashMap<>();
+
+    public FriendshipIndex(UserStorage userStorage) {
+        this.userStorage = userStorage;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Map<Integer, SortedIntArrays.Buffer> buffers = new HashMap<>();
+        userStorage.streamFriendships((userId, friendId) ->
+                buffers.computeIfAbsent(userId, id -> new SortedIntArrays.Buffer()).add(friendId));
+
+        friendsByUser.clear();
+        buffers.forEach((userId, buffer) -> friendsByUser.put(userId, new Adjacency(buffer.toSortedArray())));
+        log.info("friendship index was rebuilt, users with friends: {}", buffers.size());
+    }
+
+    public int[] friends(int userId) {
+        int[] ids = friendIds(userId);
+        return Arrays.copyOf(ids, ids.length);
+    }
+
+    public int[] friends(int userId, int after, int limit) {
+        int[] ids = friendIds(userId);
+        int position = Arrays.binarySearch(ids, after);
+        int from = position >= 0 ? position + 1 : -position - 1;
+        return Arrays.copyOfRange(ids, from, Math.min(ids.length, from + limit));
+    }
+
+    public boolean contains(int userId, int friendId) {
+        Adjacency adjacency = friendsByUser.get(userId);
+        return adjacency != null && adjacency.contains(friendId);
+    }
+
+    public int[] common(int userId, int otherId) {
+        Adjacency first = friendsByUser.get(userId);
+        Adjacency second = friendsByUser.get(otherId);
+        if (first == null || second == null) {
+            return NO_FRIENDS;
+        }
+
+        Adjacency smaller = first.ids.length <= second.ids.length ? first : second;
+        Adjacency larger = smaller == first ? second : first;
+        if (smaller.bitmap != null) {
+            return RoaringBitmap.and(smaller.bitmap, larger.bitmap).toArray();
+        }
+        if (larger.bitmap != null) {
+            return probe(smaller.ids, larger.bitmap);
+        }
+        return SortedIntArrays.intersect(smaller.ids, larger.ids);
+    }
+
+    // second-degree contacts ranked by mutual friends, both hops capped at MAX_FAN_OUT
+    public int[] suggestions(int userId, int limit) {
+        Adjacency adjacency = friendsByUser.get(userId);
+        if (adjacency == null) {
+            return NO_FRIENDS;
+        }
+
+        int[] friends = adjacency.ids;
+        IntCounter mutualFriends = new IntCounter(Math.min(friends.length, MAX_FAN_OUT) * 16);
+        for (int i = 0; i < friends.length && i < MAX_FAN_OUT; i++) {
+            int[] contacts = friendIds(friends[i]);
+            for (int j = 0; j < contacts.length && j < MAX_FAN_OUT; j++) {
+                int contactId = contacts[j];
+                if (contactId != userId && !adjacency.contains(contactId)) {
+                    mutualFriends.increment(contactId);
+                }
+            }
+        }
+
+        PriorityQueue<Long> top = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        mutualFriends.forEach((contactId, count) -> {
+            top.add(rank(contactId, count));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+
+        int[] result = new int[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = (int) (long) top.poll();
+        }
+        return result;
+    }
+
+    public void add(int userId, int friendId) {
+        friendsByUser.compute(userId, (id, adjacency) -> {
+            int[] ids = adjacency == null ? NO_FRIENDS : adjacency.ids;
+            int[] updated = SortedIntArrays.insert(ids, friendId);
+            return updated == ids ? adjacency : new Adjacency(updated);
+        });
+    }
+
+    public void remove(int userId, int friendId) {
+        friendsByUser.computeIfPresent(userId, (id, adjacency) -> {
+            int[] updated = SortedIntArrays.remove(adjacency.ids, friendId);
+            if (updated == adjacency.ids) {
+                return adjacency;
+            }
+            return updated.length == 0 ? null : new Adjacency(updated);
+        });
+    }
+
+    private int[] friendIds(int userId) {
+        Adjacency adjacency = friendsByUser.get(userId);
+        return adjacency == null ? NO_FRIENDS : adjacency.ids;
+    }
+
+    // mutual friends descending, then user id ascending
+    private static long rank(int userId, int mutualFriends) {
+        return ((long) (Integer.MAX_VALUE - mutualFriends) << 32) | userId;
+    }
+
+    private static int[] probe(int[] ids, RoaringBitmap bitmap) {
+        int[] result = new int[ids.length];
+        int size = 0;
+        for (int id : ids) {
+            if (bitmap.contains(id)) {
+                result[size++] = id;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static final class Adjacency {
+        private final int[] ids;
+        private final RoaringBitmap bitmap;
+
+        private Adjacency(int[] ids) {
+            this.ids = ids;
+            this.bitmap = ids.length >= BITMAP_DEGREE ? RoaringBitmap.bitmapOf(ids) : null;
+        }
+
+        private boolean contains(int id) {
+            return bitmap != null ? bitmap.contains(id) : Arrays.binarySearch(ids, id) >= 0;
+        }
+    }
+}
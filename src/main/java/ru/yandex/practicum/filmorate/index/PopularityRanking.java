@@ -0,0 +1,92 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class PopularityRanking {
+
+    private final Map<Integer, Integer> likesByFilm = new HashMap<>();
+    private final TreeSet<Long> ranking = new TreeSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(int filmId, int likes) {
+        lock.writeLock().lock();
+        try {
+            set(filmId, likes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int filmId) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = likesByFilm.remove(filmId);
+            if (previous != null) {
+                ranking.remove(rank(filmId, previous));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            likesByFilm.clear();
+            ranking.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void likeAdded(int filmId) {
+        shift(filmId, 1);
+    }
+
+    public void likeRemoved(int filmId) {
+        shift(filmId, -1);
+    }
+
+    public List<Integer> top(int count) {
+        lock.readLock().lock();
+        try {
+            List<Integer> filmIds = new ArrayList<>(Math.min(count, ranking.size()));
+            Iterator<Long> iterator = ranking.iterator();
+            while (filmIds.size() < count && iterator.hasNext()) {
+                filmIds.add((int) (long) iterator.next());
+            }
+            return filmIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void shift(int filmId, int delta) {
+        lock.writeLock().lock();
+        try {
+            set(filmId, Math.max(0, likesByFilm.getOrDefault(filmId, 0) + delta));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void set(int filmId, int likes) {
+        Integer previous = likesByFilm.put(filmId, likes);
+        if (previous != null) {
+            ranking.remove(rank(filmId, previous));
+        }
+        ranking.add(rank(filmId, likes));
+    }
+
+    // likes descending, then film id ascending
+    private static long rank(int filmId, int likes) {
+        return ((long) (Integer.MAX_VALUE - likes) << 32) | filmId;
+    }
+}
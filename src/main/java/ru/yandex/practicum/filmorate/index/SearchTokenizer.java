@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// lowercases, folds ё into е and strips common Russian and English inflections
+final class SearchTokenizer {
+
+    private static final int MIN_STEM_LENGTH = 3;
+    private static final String[] RUSSIAN_ENDINGS = {
+            "иями", "ями", "ами", "его", "ого", "ему", "ому", "ыми", "ими", "ать", "ять", "ить",
+            "ая", "яя", "ое", "ее", "ые", "ие", "ый", "ий", "ой", "ом", "ем", "ам", "ям", "ах", "ях",
+            "ую", "юю", "ов", "ев", "ей", "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й"
+    };
+    private static final String[] VERB_ENDINGS = {"ing", "ed"};
+    private static final String[] SIBILANT_ENDINGS = {"sses", "xes", "zes", "ches", "shes"};
+
+    private SearchTokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(stem(normalized.substring(start, i)));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static String stem(String token) {
+        if (isCyrillic(token)) {
+            return strip(token, RUSSIAN_ENDINGS);
+        }
+        return stemEnglish(token);
+    }
+
+    private static String stemEnglish(String token) {
+        if (token.endsWith("ies") && token.length() > MIN_STEM_LENGTH + 1) {
+            return token.substring(0, token.length() - 3) + "y";
+        }
+        for (String ending : SIBILANT_ENDINGS) {
+            if (token.endsWith(ending)) {
+                return token.substring(0, token.length() - 2);
+            }
+        }
+        if (token.endsWith("s") && !token.endsWith("ss") && token.length() > MIN_STEM_LENGTH) {
+            return token.substring(0, token.length() - 1);
+        }
+        String stem = strip(token, VERB_ENDINGS);
+        if (stem.length() < token.length() && stem.length() > MIN_STEM_LENGTH
+                && stem.charAt(stem.length() - 1) == stem.charAt(stem.length() - 2)
+                && "lsz".indexOf(stem.charAt(stem.length() - 1)) < 0) {
+            return stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static String strip(String token, String[] endings) {
+        for (String ending : endings) {
+            if (token.endsWith(ending) && token.length() - ending.length() >= MIN_STEM_LENGTH) {
+                return token.substring(0, token.length() - ending.length());
+            }
+        }
+        return token;
+    }
+
+    private static boolean isCyrillic(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.UnicodeBlock.of(token.charAt(i)) == Character.UnicodeBlock.CYRILLIC) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
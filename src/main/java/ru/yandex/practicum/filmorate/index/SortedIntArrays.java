@@ -0,0 +1,131 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.Arrays;
+
+final class SortedIntArrays {
+
+    static final int[] EMPTY = new int[0];
+
+    private static final int GALLOP_RATIO = 32;
+
+    private SortedIntArrays() {
+    }
+
+    static int[] insert(int[] ids, int id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        int insertion = -position - 1;
+        int[] updated = new int[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, insertion);
+        updated[insertion] = id;
+        System.arraycopy(ids, insertion, updated, insertion + 1, ids.length - insertion);
+        return updated;
+    }
+
+    static int[] remove(int[] ids, int id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        int[] updated = new int[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        System.arraycopy(ids, position + 1, updated, position, updated.length - position);
+        return updated;
+    }
+
+    static int[] union(int[] first, int[] second) {
+        int[] result = new int[first.length + second.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                result[size++] = first[i++];
+            } else if (first[i] > second[j]) {
+                result[size++] = second[j++];
+            } else {
+                result[size++] = first[i++];
+                j++;
+            }
+        }
+        while (i < first.length) {
+            result[size++] = first[i++];
+        }
+        while (j < second.length) {
+            result[size++] = second[j++];
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    static int[] intersect(int[] first, int[] second) {
+        int[] smaller = first.length <= second.length ? first : second;
+        int[] larger = smaller == first ? second : first;
+        if (larger.length >= smaller.length * GALLOP_RATIO) {
+            return gallop(smaller, larger);
+        }
+        return merge(smaller, larger);
+    }
+
+    private static int[] merge(int[] smaller, int[] larger) {
+        int[] result = new int[smaller.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < smaller.length && j < larger.length) {
+            if (smaller[i] < larger[j]) {
+                i++;
+            } else if (smaller[i] > larger[j]) {
+                j++;
+            } else {
+                result[size++] = smaller[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static int[] gallop(int[] smaller, int[] larger) {
+        int[] result = new int[smaller.length];
+        int size = 0;
+        int from = 0;
+        for (int id : smaller) {
+            int bound = 1;
+            while (from + bound < larger.length && larger[from + bound] < id) {
+                bound <<= 1;
+            }
+            int position = Arrays.binarySearch(larger, from + (bound >> 1),
+                    Math.min(from + bound + 1, larger.length), id);
+            if (position >= 0) {
+                result[size++] = id;
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+            if (from >= larger.length) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    static final class Buffer {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        int[] toSortedArray() {
+            int[] sorted = Arrays.copyOf(ids, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.List;
+
+@Component
+public class UserExistenceIndex extends ExistenceIndex {
+
+    private final UserStorage userStorage;
+
+    public UserExistenceIndex(UserStorage userStorage) {
+        this.userStorage = userStorage;
+    }
+
+    @Override
+    protected List<Integer> loadIds() {
+        return userStorage.getUserIds();
+    }
+
+    @Override
+    protected boolean lookup(int id) {
+        return userStorage.existsById(id);
+    }
+}
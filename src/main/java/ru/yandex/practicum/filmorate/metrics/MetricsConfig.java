@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final StorageCallCounter storageCallCounter;
+
+    public MetricsConfig(StorageCallCounter storageCallCounter) {
+        this.storageCallCounter = storageCallCounter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(storageCallCounter);
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@Component
+public class StorageCallCounter implements AsyncHandlerInterceptor {
+
+    static final String CALLS_PER_REQUEST = "filmorate.storage.calls.per.request";
+
+    private static final ThreadLocal<int[]> CALLS = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public StorageCallCounter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    static void increment() {
+        int[] calls = CALLS.get();
+        if (calls != null) {
+            calls[0]++;
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        CALLS.set(new int[1]);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        CALLS.remove();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        int[] calls = CALLS.get();
+        CALLS.remove();
+        if (calls == null || !(handler instanceof HandlerMethod)) {
+            return;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(CALLS_PER_REQUEST)
+                .description("Storage calls issued by one request")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                .register(meterRegistry)
+                .record(calls[0]);
+    }
+}
@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+class StorageMetricsInterceptor implements MethodInterceptor {
+
+    static final String CALLS = "filmorate.storage.calls";
+    static final String ROWS = "filmorate.storage.rows";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final String storage;
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+    StorageMetricsInterceptor(ObjectProvider<MeterRegistry> meterRegistry, String storage) {
+        this.meterRegistry = meterRegistry;
+        this.storage = storage;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Meters methodMeters = meters.computeIfAbsent(invocation.getMethod(), this::register);
+        StorageCallCounter.increment();
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            methodMeters.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            int rows = rows(result);
+            if (rows >= 0) {
+                methodMeters.rows.record(rows);
+            }
+            return result;
+        } catch (Throwable e) {
+            methodMeters.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Meters register(Method method) {
+        MeterRegistry registry = meterRegistry.getObject();
+        return new Meters(timer(registry, method, "success"), timer(registry, method, "error"),
+                DistributionSummary.builder(ROWS)
+                        .description("Rows returned by storage calls")
+                        .tag("storage", storage)
+                        .tag("method", method.getName())
+                        .register(registry));
+    }
+
+    private Timer timer(MeterRegistry registry, Method method, String outcome) {
+        return Timer.builder(CALLS)
+                .description("Storage call latency")
+                .tag("storage", storage)
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static int rows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+
+    private static final class Meters {
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary rows;
+
+        private Meters(Timer success, Timer error, DistributionSummary rows) {
+            this.success = success;
+            this.error = error;
+            this.rows = rows;
+        }
+    }
+}
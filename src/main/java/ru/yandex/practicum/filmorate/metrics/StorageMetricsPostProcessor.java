@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.List;
+
+@Component
+public class StorageMetricsPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    private static final List<Class<?>> STORAGE_TYPES =
+            List.of(FilmStorage.class, UserStorage.class, GenreStorage.class, MpaStorage.class);
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    public StorageMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> storageType = STORAGE_TYPES.stream().filter(type -> type.isInstance(bean)).findFirst().orElse(null);
+        if (storageType == null || isDelegate(storageType, beanName)) {
+            return bean;
+        }
+
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new StorageMetricsInterceptor(meterRegistry,
+                ClassUtils.getUserClass(bean).getSimpleName()));
+        return proxyFactory.getProxy();
+    }
+
+    // only the storage that gets injected is measured, a non-primary one next to a primary one is its delegate,
+    // so one call isn't counted twice
+    private boolean isDelegate(Class<?> storageType, String beanName) {
+        String[] candidates = beanFactory.getBeanNamesForType(storageType, true, false);
+        return candidates.length > 1 && beanFactory.containsBeanDefinition(beanName)
+                && !beanFactory.getBeanDefinition(beanName).isPrimary();
+    }
+}
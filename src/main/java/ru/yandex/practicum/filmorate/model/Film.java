@@ -38,6 +38,10 @@ public class Film {
 
     private Set<Integer> likes;
 
+    public int getLikesCount() {
+        return likes == null ? 0 : likes.size();
+    }
+
     public Map<String, Object> toMap() {
         Map<String, Object> values = new HashMap<>();
         values.put("name", name);
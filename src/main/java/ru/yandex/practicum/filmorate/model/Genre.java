@@ -1,15 +1,13 @@
 package ru.yandex.practicum.filmorate.model;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Value;
 
 import javax.validation.constraints.NotBlank;
 
-@Data
-@AllArgsConstructor
+@Value
 public class Genre {
-    private Integer id;
+    Integer id;
     @NotBlank
-    private String name;
+    String name;
 }
 
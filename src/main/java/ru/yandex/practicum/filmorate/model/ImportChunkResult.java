@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportChunkResult {
+    private int chunk;
+    private int firstLine;
+    private int lastLine;
+    private int imported;
+    private int rejected;
+    private String error;
+    private List<RecordError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecordError {
+        private int line;
+        private String message;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ImportRecord<T> {
+    private int line;
+    private T value;
+    private String error;
+
+    public static <T> ImportRecord<T> of(int line, T value) {
+        return new ImportRecord<>(line, value, null);
+    }
+
+    public static <T> ImportRecord<T> failed(int line, String error) {
+        return new ImportRecord<>(line, null, error);
+    }
+}
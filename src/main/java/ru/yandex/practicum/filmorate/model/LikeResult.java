@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LikeResult {
+    private int filmId;
+    private int userId;
+    private Status status;
+
+    public enum Status {
+        ADDED,
+        DUPLICATE,
+        FILM_NOT_FOUND,
+        USER_NOT_FOUND
+    }
+}
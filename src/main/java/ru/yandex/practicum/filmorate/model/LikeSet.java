@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.model;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class LikeSet extends AbstractSet<Integer> {
+
+    private final RoaringBitmap userIds = new RoaringBitmap();
+    private int count;
+
+    public LikeSet() {
+    }
+
+    public LikeSet(Collection<Integer> likes) {
+        likes.forEach(this::add);
+        optimize();
+    }
+
+    @Override
+    public synchronized int size() {
+        return count;
+    }
+
+    @Override
+    public synchronized boolean contains(Object userId) {
+        return userId instanceof Integer && userIds.contains((Integer) userId);
+    }
+
+    @Override
+    public synchronized boolean add(Integer userId) {
+        if (userIds.checkedAdd(userId)) {
+            count++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized boolean remove(Object userId) {
+        if (userId instanceof Integer && userIds.checkedRemove((Integer) userId)) {
+            count--;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void clear() {
+        userIds.clear();
+        count = 0;
+    }
+
+    public synchronized int[] toIntArray() {
+        return userIds.toArray();
+    }
+
+    public synchronized void optimize() {
+        userIds.runOptimize();
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        int[] snapshot = toIntArray();
+        return new Iterator<>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < snapshot.length;
+            }
+
+            @Override
+            public Integer next() {
+                if (position >= snapshot.length) {
+                    throw new NoSuchElementException();
+                }
+                return snapshot[position++];
+            }
+
+            @Override
+            public void remove() {
+                if (position == 0) {
+                    throw new IllegalStateException();
+                }
+                LikeSet.this.remove(snapshot[position - 1]);
+            }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.model.ImportChunkResult;
+import ru.yandex.practicum.filmorate.model.ImportRecord;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Slf4j
+final class ChunkedImport {
+
+    private static final int MAX_CHUNK_ERRORS = 100;
+
+    private ChunkedImport() {
+    }
+
+    // only one chunk of records is held at a time, each chunk is written by a single writer call
+    static <T> List<ImportChunkResult> run(Iterator<ImportRecord<T>> records, int chunkSize,
+                                           Consumer<T> validator, Consumer<List<T>> writer) {
+        List<ImportChunkResult> results = new ArrayList<>();
+        List<T> batch = new ArrayList<>(chunkSize);
+        ImportChunkResult chunk = null;
+        int size = 0;
+
+        while (records.hasNext()) {
+            ImportRecord<T> record = records.next();
+            if (chunk == null) {
+                chunk = new ImportChunkResult();
+                chunk.setChunk(results.size() + 1);
+                chunk.setFirstLine(record.getLine());
+            }
+            chunk.setLastLine(record.getLine());
+
+            String error = record.getError();
+            if (error == null && record.getValue() == null) {
+                error = "record cannot be null.";
+            } else if (error == null) {
+                try {
+                    validator.accept(record.getValue());
+                    batch.add(record.getValue());
+                } catch (ValidationException | UserNotFoundException e) {
+                    error = e.getMessage();
+                }
+            }
+            if (error != null) {
+                reject(chunk, record.getLine(), error);
+            }
+
+            if (++size == chunkSize) {
+                results.add(write(chunk, batch, writer));
+                batch.clear();
+                chunk = null;
+                size = 0;
+            }
+        }
+
+        if (chunk != null) {
+            results.add(write(chunk, batch, writer));
+        }
+        return results;
+    }
+
+    private static <T> ImportChunkResult write(ImportChunkResult chunk, List<T> batch, Consumer<List<T>> writer) {
+        if (batch.isEmpty()) {
+            return chunk;
+        }
+        try {
+            writer.accept(batch);
+            chunk.setImported(batch.size());
+        } catch (DataAccessException e) {
+            log.error("import chunk {} (lines {}-{}) was rolled back: {}",
+                    chunk.getChunk(), chunk.getFirstLine(), chunk.getLastLine(), e.getMessage());
+            chunk.setError(e.getMostSpecificCause().getMessage());
+            chunk.setRejected(chunk.getRejected() + batch.size());
+        }
+        return chunk;
+    }
+
+    private static void reject(ImportChunkResult chunk, int line, String message) {
+        chunk.setRejected(chunk.getRejected() + 1);
+        if (chunk.getErrors().size() < MAX_CHUNK_ERRORS) {
+            chunk.getErrors().add(new ImportChunkResult.RecordError(line, message));
+        }
+    }
+}
@@ -3,18 +3,37 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.cache.VersionRegistry;
 import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.index.FilmExistenceIndex;
+import ru.yandex.practicum.filmorate.index.FilmLeaderboards;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.FilmSimilarityIndex;
+import ru.yandex.practicum.filmorate.index.UserExistenceIndex;
 import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.ImportChunkResult;
+import ru.yandex.practicum.filmorate.model.ImportRecord;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.LikeResult;
+import ru.yandex.practicum.filmorate.model.LikeSet;
+import ru.yandex.practicum.filmorate.model.MultiGetResult;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
-import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -22,16 +41,60 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class FilmService {
 
+    private static final int MAX_LIKES_BATCH_SIZE = 10_000;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_MULTI_GET_SIZE = 500;
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+
     private final FilmStorage filmStorage;
-    private final UserStorage userStorage;
+    private final FilmSimilarityIndex similarityIndex;
+    private final FilmLeaderboards leaderboards;
+    private final FilmSearchIndex searchIndex;
+    private final VersionRegistry versionRegistry;
+    private final FilmExistenceIndex filmExistenceIndex;
+    private final UserExistenceIndex userExistenceIndex;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     public List<Film> getFilms() {
         return filmStorage.getFilms();
     }
 
+    public List<Film> getFilms(int after, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            log.error("film service get films error: incorrect page limit {}.", limit);
+            throw new ValidationException(String.format("page limit must be between 1 and %s, limit: %s.",
+                    MAX_PAGE_SIZE, limit));
+        }
+        return filmStorage.getFilms(after, limit);
+    }
+
+    public void streamFilms(Consumer<Film> consumer) {
+        filmStorage.streamFilms(consumer);
+    }
+
     public Film createFilm(Film film) {
         filmValidation(film);
-        return filmStorage.create(film);
+        Film createdFilm = filmStorage.create(film);
+        filmExistenceIndex.add(createdFilm.getId());
+        leaderboards.put(createdFilm);
+        searchIndex.put(createdFilm);
+        versionRegistry.filmsChanged();
+        similarityIndex.putLikes(createdFilm.getId(), createdFilm.getLikes());
+        return createdFilm;
+    }
+
+    public List<ImportChunkResult> importFilms(Iterator<ImportRecord<Film>> records) {
+        return ChunkedImport.run(records, IMPORT_CHUNK_SIZE, this::importValidation, films -> {
+            List<Film> createdFilms = filmStorage.createAll(films);
+            for (Film createdFilm : createdFilms) {
+                filmExistenceIndex.add(createdFilm.getId());
+                leaderboards.put(createdFilm);
+                similarityIndex.putLikes(createdFilm.getId(), createdFilm.getLikes());
+            }
+            searchIndex.putAll(createdFilms);
+            versionRegistry.filmsChanged();
+        });
     }
 
     public Film updateFilm(Film film) {
@@ -40,7 +103,16 @@ public class FilmService {
             log.error("film service update film error: film with id {} was not found.", film.getId());
             throw new FilmNotFoundException(String.format("Film with id: %s was not found!", film.getId()));
         }
-        return filmStorage.update(film);
+        Film updatedFilm = filmStorage.update(film);
+        if (updatedFilm != null) {
+            leaderboards.put(updatedFilm);
+            searchIndex.put(updatedFilm);
+            versionRegistry.filmChanged(updatedFilm.getId());
+        }
+        if (updatedFilm != null && film.getLikes() != null) {
+            similarityIndex.putLikes(updatedFilm.getId(), updatedFilm.getLikes());
+        }
+        return updatedFilm;
     }
 
     public Optional<Film> getFilmById(int filmId) {
@@ -51,82 +123,174 @@ public class FilmService {
         return filmStorage.getFilmById(filmId);
     }
 
+    // unknown ids are reported instead of failing the call; existing ones are loaded with one query per table
+    public MultiGetResult<Film> getFilmsByIds(List<Integer> filmIds) {
+        if (filmIds.isEmpty() || filmIds.size() > MAX_MULTI_GET_SIZE) {
+            log.error("film service get films by ids error: incorrect id count {}.", filmIds.size());
+            throw new ValidationException(String.format("id count must be between 1 and %s, count: %s.",
+                    MAX_MULTI_GET_SIZE, filmIds.size()));
+        }
+        if (filmIds.stream().anyMatch(Objects::isNull)) {
+            log.error("film service get films by ids error: id list {} contains empty ids.", filmIds);
+            throw new ValidationException("ids cannot be empty.");
+        }
+
+        Set<Integer> requested = new LinkedHashSet<>(filmIds);
+        List<Integer> existing = requested.stream()
+                .filter(filmExistenceIndex::contains)
+                .collect(Collectors.toList());
+        List<Film> films = existing.isEmpty() ? List.of() : filmStorage.getFilmsByIds(existing);
+
+        Set<Integer> found = films.stream().map(Film::getId).collect(Collectors.toSet());
+        List<Integer> missing = requested.stream()
+                .filter(filmId -> !found.contains(filmId))
+                .collect(Collectors.toList());
+        return new MultiGetResult<>(films, missing);
+    }
+
+    public int[] getLikes(int filmId) {
+        Set<Integer> likes = getFilmById(filmId).orElseThrow().getLikes();
+        if (likes instanceof LikeSet) {
+            return ((LikeSet) likes).toIntArray();
+        }
+        return likes.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    public int getLikesCount(int filmId) {
+        if (filmNotExists(filmId)) {
+            log.error("film service get likes count error: film with id {} was not found.", filmId);
+            throw new FilmNotFoundException(String.format("Film with id: %s was not found!", filmId));
+        }
+        return filmStorage.getLikesCount(filmId);
+    }
+
     public void addLike(int filmId, int userId) {
         validateFilmAndUser(filmId, userId);
 
-        if (filmStorage.getFilms().stream().anyMatch(f -> f.getId() == filmId)) {
-            Optional<Film> filmById = filmStorage.getFilmById(filmId);
-            if (filmById.isPresent()) {
-                if (filmById.get().getLikes().contains(userId)) {
-                    log.error("film service add like to film error: " +
-                            "user with id {} already add like to film with id {}.", userId, filmId);
-                    throw new ValidationException(String.format("user with id %s already add like " +
-                            "to film with id %s.", userId, filmId));
-                }
-            }
+        // the storage decides atomically, so concurrent duplicates shift the indexes only once
+        if (!filmStorage.addLike(filmId, userId)) {
+            log.error("film service add like to film error: " +
+                    "user with id {} already add like to film with id {}.", userId, filmId);
+            throw new ValidationException(String.format("user with id %s already add like " +
+                    "to film with id %s.", userId, filmId));
         }
 
-        for (Film film : filmStorage.getFilms()) {
-            if (filmId == film.getId()) {
-                filmStorage.addLike(filmId, userId);
-            }
-        }
+        leaderboards.likeAdded(filmId);
+        searchIndex.likeAdded(filmId);
+        versionRegistry.filmChanged(filmId);
+        similarityIndex.likeAdded(filmId, userId);
     }
 
     public void removeLike(int filmId, int userId) {
         validateFilmAndUser(filmId, userId);
 
-        for (Film film : filmStorage.getFilms()) {
-            if (filmId == film.getId()) {
-                if (!(film.getLikes().contains(userId))) {
-                    log.error("film service remove like from film error: " +
-                            "can't find likes from user with id {} in film with id {} likes.", userId, filmId);
-                    throw new ValidationException(String.format("no likes from user with id %s found for " +
-                            "film with id %s.", userId, filmId));
-                } else {
-                    filmStorage.removeLike(filmId, userId);
-                }
-            }
+        if (!filmStorage.removeLike(filmId, userId)) {
+            log.error("film service remove like from film error: " +
+                    "can't find likes from user with id {} in film with id {} likes.", userId, filmId);
+            throw new ValidationException(String.format("no likes from user with id %s found for " +
+                    "film with id %s.", userId, filmId));
         }
+
+        leaderboards.likeRemoved(filmId);
+        searchIndex.likeRemoved(filmId);
+        versionRegistry.filmChanged(filmId);
+        similarityIndex.likeRemoved(filmId, userId);
     }
 
+    public List<LikeResult> addLikes(List<Like> likes) {
+        if (likes == null || likes.stream().anyMatch(Objects::isNull)) {
+            log.error("film service add likes error: likes batch is empty or contains empty likes.");
+            throw new ValidationException("likes batch and its likes cannot be empty.");
+        }
+        if (likes.size() > MAX_LIKES_BATCH_SIZE) {
+            log.error("film service add likes error: batch size {} is too big.", likes.size());
+            throw new ValidationException(String.format("likes batch size can't be more than %s, size: %s.",
+                    MAX_LIKES_BATCH_SIZE, likes.size()));
+        }
+
+        Set<Like> existingLikes = filmStorage.findLikes(likes);
+        Set<Like> acceptedLikes = new HashSet<>();
+        List<Like> newLikes = new ArrayList<>();
+        List<LikeResult> results = new ArrayList<>(likes.size());
+
+        for (Like like : likes) {
+            LikeResult.Status status;
+            if (filmNotExists(like.getFilmId())) {
+                status = LikeResult.Status.FILM_NOT_FOUND;
+            } else if (!userExists(like.getUserId())) {
+                status = LikeResult.Status.USER_NOT_FOUND;
+            } else if (existingLikes.contains(like) || !acceptedLikes.add(like)) {
+                status = LikeResult.Status.DUPLICATE;
+            } else {
+                status = LikeResult.Status.ADDED;
+                newLikes.add(like);
+            }
+            results.add(new LikeResult(like.getFilmId(), like.getUserId(), status));
+        }
+
+        // a like added concurrently after the lookup above turns out to be a duplicate
+        List<Like> addedLikes = filmStorage.addLikes(newLikes);
+        if (addedLikes.size() < newLikes.size()) {
+            Set<Like> added = new HashSet<>(addedLikes);
+            results.stream()
+                    .filter(result -> result.getStatus() == LikeResult.Status.ADDED)
+                    .filter(result -> !added.contains(new Like(result.getFilmId(), result.getUserId())))
+                    .forEach(result -> result.setStatus(LikeResult.Status.DUPLICATE));
+        }
+        addedLikes.forEach(like -> {
+            leaderboards.likeAdded(like.getFilmId());
+            searchIndex.likeAdded(like.getFilmId());
+            versionRegistry.filmChanged(like.getFilmId());
+            similarityIndex.likeAdded(like.getFilmId(), like.getUserId());
+        });
+        log.info("likes batch processed: received {}, added {}.", likes.size(), addedLikes.size());
+        return results;
+    }
 
     public List<Film> getPopularFilms(int count) {
+        return getPopularFilms(count, null, null, null);
+    }
+
+    public List<Film> getPopularFilms(int count, Integer genreId, Integer mpaId, Integer year) {
 
         if (count <= 0) {
             log.error("film service get popular films error: " +
                     "film count can't be negative, count: {}.", count);
             throw new ValidationException(String.format("film count can't be negative, count: %s.", count));
         }
+        if (count > MAX_PAGE_SIZE) {
+            log.error("film service get popular films error: film count {} is too big.", count);
+            throw new ValidationException(String.format("film count can't be more than %s, count: %s.",
+                    MAX_PAGE_SIZE, count));
+        }
 
-        if (count > filmStorage.getFilms().size()) {
-            count = filmStorage.getFilms().size();
+        if (genreId == null && mpaId == null && year == null) {
+            return filmStorage.getPopularFilms(count);
         }
+        return filmStorage.getFilmsByIds(leaderboards.top(count, genreId, mpaId, year));
+    }
 
+    public List<Film> searchFilms(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            log.error("film service search films error: query is empty.");
+            throw new ValidationException("search query can't be empty.");
+        }
+        if (limit <= 0 || limit > MAX_SEARCH_RESULTS) {
+            log.error("film service search films error: incorrect search limit {}.", limit);
+            throw new ValidationException(String.format("search limit must be between 1 and %s, limit: %s.",
+                    MAX_SEARCH_RESULTS, limit));
+        }
 
-        return filmStorage.getFilms()
-                .stream()
-                .sorted((o1, o2) -> o2.getLikes().size() - o1.getLikes().size())
-                .limit(count)
-                .collect(Collectors.toList());
+        int[] filmIds = searchIndex.search(query, limit);
+        return filmStorage.getFilmsByIds(Arrays.stream(filmIds).boxed().collect(Collectors.toList()));
     }
 
     public boolean userExists(int userId) {
-        for (User user : userStorage.getUsers()) {
-            if (userId == user.getId()) {
-                return true;
-            }
-        }
-        return false;
+        return userExistenceIndex.contains(userId);
     }
 
     public boolean filmNotExists(int filmId) {
-        for (Film film : filmStorage.getFilms()) {
-            if (filmId == film.getId()) {
-                return false;
-            }
-        }
-        return true;
+        return !filmExistenceIndex.contains(filmId);
     }
 
     private void validateFilmAndUser(int filmId, int userId) {
@@ -140,6 +304,42 @@ public class FilmService {
         }
     }
 
+    private void importValidation(Film film) {
+        if (Objects.isNull(film.getDescription()) || Objects.isNull(film.getReleaseDate())) {
+            log.error("film import error: film {} has no description or release date.", film.getName());
+            throw new ValidationException("Film description and release date are required.");
+        }
+        filmValidation(film);
+        if (film.getMpa() != null && referenceDataRegistry.getMpa(film.getMpa().getId()) == null) {
+            log.error("film import error: mpa with id {} was not found.", film.getMpa().getId());
+            throw new ValidationException(String.format("Mpa with id: %s was not found!", film.getMpa().getId()));
+        }
+        if (film.getGenres() != null) {
+            for (Genre genre : film.getGenres()) {
+                if (genre == null) {
+                    log.error("film import error: film {} has an empty genre.", film.getName());
+                    throw new ValidationException("Film genres cannot be empty.");
+                }
+                if (referenceDataRegistry.getGenre(genre.getId()) == null) {
+                    log.error("film import error: genre with id {} was not found.", genre.getId());
+                    throw new ValidationException(String.format("Genre with id: %s was not found!", genre.getId()));
+                }
+            }
+        }
+        if (film.getLikes() != null) {
+            for (Integer userId : film.getLikes()) {
+                if (userId == null) {
+                    log.error("film import error: film {} has an empty like.", film.getName());
+                    throw new ValidationException("Film likes cannot be empty.");
+                }
+                if (!userExists(userId)) {
+                    log.error("film import error: user with id {} was not found.", userId);
+                    throw new UserNotFoundException(String.format("User with id: %s was not found!", userId));
+                }
+            }
+        }
+    }
+
     private void filmValidation(Film film) {
         if (Objects.isNull(film.getName()) || film.getName().isBlank()) {
             log.error("film validation error: film with name {} was attempted to add.", film.getName());
@@ -3,9 +3,9 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataRegistry;
 import ru.yandex.practicum.filmorate.exceptions.GenreNotFoundException;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
 
 import java.util.List;
 import java.util.Objects;
@@ -15,14 +15,22 @@ import java.util.Objects;
 @RequiredArgsConstructor
 public class GenreService {
 
-    private final GenreDbStorage genreDbStorage;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     public List<Genre> getGenres() {
-        return genreDbStorage.getGenres();
+        return referenceDataRegistry.getGenres();
+    }
+
+    public byte[] getGenresJson() {
+        return referenceDataRegistry.getGenresJson();
+    }
+
+    public byte[] getGenresGzip() {
+        return referenceDataRegistry.getGenresGzip();
     }
 
     public Genre getGenreById(int genreId) {
-        Genre genreById = genreDbStorage.getGenreById(genreId);
+        Genre genreById = referenceDataRegistry.getGenre(genreId);
 
         if (Objects.isNull(genreById)) {
             log.info("genre wasn't found by id: genre with id {} was not found.", genreId);
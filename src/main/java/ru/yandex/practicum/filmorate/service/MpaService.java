@@ -3,9 +3,9 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataRegistry;
 import ru.yandex.practicum.filmorate.exceptions.MpaNotFoundException;
 import ru.yandex.practicum.filmorate.model.Mpa;
-import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
 
 import java.util.List;
 import java.util.Objects;
@@ -15,15 +15,23 @@ import java.util.Objects;
 @RequiredArgsConstructor
 public class MpaService {
 
-    private final MpaDbStorage mpaDbStorage;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     public List<Mpa> getMpas() {
-        return mpaDbStorage.getMpas();
+        return referenceDataRegistry.getMpas();
+    }
+
+    public byte[] getMpasJson() {
+        return referenceDataRegistry.getMpasJson();
+    }
+
+    public byte[] getMpasGzip() {
+        return referenceDataRegistry.getMpasGzip();
     }
 
     public Mpa getMpaById(int mpaId) {
 
-        Mpa mpaById = mpaDbStorage.getMpaById(mpaId);
+        Mpa mpaById = referenceDataRegistry.getMpa(mpaId);
         if (Objects.isNull(mpaById)) {
             log.info("mpa wasn't found by id: mpa with id {} was not found.", mpaId);
             throw new MpaNotFoundException(String.format("Mpa with id: %s was not found!", mpaId));
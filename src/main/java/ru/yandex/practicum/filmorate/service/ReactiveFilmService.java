@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.index.FilmExistenceIndex;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.R2dbcFilmStorage;
+
+@Slf4j
+@Service
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "filmorate.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReactiveFilmService {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final R2dbcFilmStorage filmStorage;
+    private final FilmExistenceIndex filmExistenceIndex;
+
+    public Mono<Film> getFilmById(int filmId) {
+        if (!filmExistenceIndex.contains(filmId)) {
+            log.error("reactive film service get film by id error: film with id {} was not found.", filmId);
+            throw new FilmNotFoundException(String.format("Film with id: %s was not found!", filmId));
+        }
+        return filmStorage.getFilmById(filmId);
+    }
+
+    public Flux<Film> getPopularFilms(int count) {
+        if (count <= 0) {
+            log.error("reactive film service get popular films error: " +
+                    "film count can't be negative, count: {}.", count);
+            throw new ValidationException(String.format("film count can't be negative, count: %s.", count));
+        }
+        if (count > MAX_PAGE_SIZE) {
+            log.error("reactive film service get popular films error: film count {} is too big.", count);
+            throw new ValidationException(String.format("film count can't be more than %s, count: %s.",
+                    MAX_PAGE_SIZE, count));
+        }
+        return filmStorage.getPopularFilms(count);
+    }
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.index.UserExistenceIndex;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.R2dbcUserStorage;
+
+@Slf4j
+@Service
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "filmorate.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReactiveUserService {
+
+    private final R2dbcUserStorage userStorage;
+    private final UserExistenceIndex userExistenceIndex;
+
+    public Flux<User> getFriends(int userId) {
+        if (!userExistenceIndex.contains(userId)) {
+            log.error("reactive user service get friend list error: user with id {} was not found.", userId);
+            throw new UserNotFoundException(String.format("User with id: %s was not found!", userId));
+        }
+        return userStorage.getFriends(userId);
+    }
+
+    public Flux<User> getCommonFriends(int userId, int otherId) {
+        if (!userExistenceIndex.contains(userId)) {
+            log.error("reactive user service get common friends error: user with id {} was not found.", userId);
+            throw new UserNotFoundException(String.format("User with id: %s was not found!", userId));
+        }
+
+        if (!userExistenceIndex.contains(otherId)) {
+            log.error("reactive user service get common friends error: user with id {} was not found.", otherId);
+            throw new UserNotFoundException(String.format("User with id: %s was not found!", otherId));
+        }
+
+        if (userId == otherId) {
+            log.debug("trying to get common friends for users with the same id: id {}", userId);
+            throw new ValidationException(String.format("Users with the same id cannot be friends, id: %s", userId));
+        }
+        return userStorage.getCommonFriends(userId, otherId);
+    }
+}
@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.index.FilmSimilarityIndex;
+import ru.yandex.practicum.filmorate.index.UserExistenceIndex;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecommendationService {
+
+    private static final int MAX_RECOMMENDATIONS = 100;
+
+    private final FilmStorage filmStorage;
+    private final FilmSimilarityIndex similarityIndex;
+    private final UserExistenceIndex userExistenceIndex;
+
+    public List<Film> getRecommendations(int userId, int limit) {
+        if (limit <= 0 || limit > MAX_RECOMMENDATIONS) {
+            log.error("recommendation service error: incorrect recommendations limit {}.", limit);
+            throw new ValidationException(String.format("recommendations limit must be between 1 and %s, " +
+                    "limit: %s.", MAX_RECOMMENDATIONS, limit));
+        }
+
+        if (!userExistenceIndex.contains(userId)) {
+            log.error("recommendation service error: user with id {} was not found.", userId);
+            throw new UserNotFoundException(String.format("User with id: %s was not found!", userId));
+        }
+
+        int[] filmIds = similarityIndex.recommend(userId, limit);
+        return filmStorage.getFilmsByIds(Arrays.stream(filmIds).boxed().collect(Collectors.toList()));
+    }
+}
@@ -3,30 +3,91 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.VersionRegistry;
 import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.index.FriendshipIndex;
+import ru.yandex.practicum.filmorate.index.UserExistenceIndex;
+import ru.yandex.practicum.filmorate.model.ImportChunkResult;
+import ru.yandex.practicum.filmorate.model.ImportRecord;
+import ru.yandex.practicum.filmorate.model.MultiGetResult;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_MULTI_GET_SIZE = 500;
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+
     private final UserStorage userStorage;
+    private final UserExistenceIndex userExistenceIndex;
+    private final FriendshipIndex friendshipIndex;
+    private final VersionRegistry versionRegistry;
 
     public List<User> getUsers() {
         return userStorage.getUsers();
     }
 
+    public List<User> getUsers(int after, int limit) {
+        pageLimitValidation(limit);
+        return userStorage.getUsers(after, limit);
+    }
+
+    public MultiGetResult<User> getUsersByIds(List<Integer> userIds) {
+        if (userIds.isEmpty() || userIds.size() > MAX_MULTI_GET_SIZE) {
+            log.error("user service get users by ids error: incorrect id count {}.", userIds.size());
+            throw new ValidationException(String.format("id count must be between 1 and %s, count: %s.",
+                    MAX_MULTI_GET_SIZE, userIds.size()));
+        }
+        if (userIds.stream().anyMatch(Objects::isNull)) {
+            log.error("user service get users by ids error: id list {} contains empty ids.", userIds);
+            throw new ValidationException("ids cannot be empty.");
+        }
+
+        Set<Integer> requested = new LinkedHashSet<>(userIds);
+        List<Integer> existing = requested.stream()
+                .filter(userExistenceIndex::contains)
+                .collect(Collectors.toList());
+        List<User> users = existing.isEmpty() ? List.of() : userStorage.getUsersByIds(existing);
+
+        Set<Integer> found = users.stream().map(User::getId).collect(Collectors.toSet());
+        List<Integer> missing = requested.stream()
+                .filter(userId -> !found.contains(userId))
+                .collect(Collectors.toList());
+        return new MultiGetResult<>(users, missing);
+    }
+
+    public void streamUsers(Consumer<User> consumer) {
+        userStorage.streamUsers(consumer);
+    }
+
     public User createUser(User user) {
         userValidation(user);
-        return userStorage.create(user);
+        User createdUser = userStorage.create(user);
+        userExistenceIndex.add(createdUser.getId());
+        return createdUser;
+    }
+
+    public List<ImportChunkResult> importUsers(Iterator<ImportRecord<User>> records) {
+        return ChunkedImport.run(records, IMPORT_CHUNK_SIZE, this::importValidation, users -> {
+            userStorage.createAll(users).forEach(createdUser -> userExistenceIndex.add(createdUser.getId()));
+            versionRegistry.usersChanged();
+        });
     }
 
     public User updateUser(User user) {
@@ -35,7 +96,9 @@ public class UserService {
             log.error("user service update user error: user with id {} was not found.", user.getId());
             throw new UserNotFoundException(String.format("User with id: %s was not found!", user.getId()));
         }
-        return userStorage.update(user);
+        User updatedUser = userStorage.update(user);
+        versionRegistry.usersChanged();
+        return updatedUser;
     }
 
     public void addToFriends(int userId, int friendId) {
@@ -53,14 +116,14 @@ public class UserService {
             log.debug("trying to add users with the same id to their friends list: id {}", userId);
             throw new ValidationException(String.format("Users with the same cannot be friends, id: %s", userId));
         }
-        for (User friend : userStorage.getFriends(userId)) {
-            if (friend.getId() == friendId) {
-                log.debug("user with id: {} already have user with id: {} in friend list", userId, friendId);
-                throw new ValidationException(String.format("user with id: %s already have user with id: %s " +
-                        "in friend list", userId, friendId));
-            }
+        if (friendshipIndex.contains(userId, friendId)) {
+            log.debug("user with id: {} already have user with id: {} in friend list", userId, friendId);
+            throw new ValidationException(String.format("user with id: %s already have user with id: %s " +
+                    "in friend list", userId, friendId));
         }
         userStorage.addFriend(userId, friendId);
+        friendshipIndex.add(userId, friendId);
+        versionRegistry.friendsChanged(userId);
     }
 
     public void removeFromFriends(int userId, int friendId) {
@@ -79,6 +142,8 @@ public class UserService {
             throw new UserNotFoundException(String.format("Users with the same id cannot be friends, id: %s", userId));
         }
         userStorage.removeFromFriends(userId, friendId);
+        friendshipIndex.remove(userId, friendId);
+        versionRegistry.friendsChanged(userId);
     }
 
     public List<User> getFriends(int userId) {
@@ -88,7 +153,29 @@ public class UserService {
             throw new UserNotFoundException(String.format("User with id: %s was not found!", userId));
         }
 
-        return userStorage.getFriends(userId);
+        return toUsers(friendshipIndex.friends(userId));
+    }
+
+    public List<User> getFriends(int userId, int after, int limit) {
+        pageLimitValidation(limit);
+
+        if (userNotExists(userId)) {
+            log.error("user service get friend list error: user with id {} was not found.", userId);
+            throw new UserNotFoundException(String.format("User with id: %s was not found!", userId));
+        }
+
+        return toUsers(friendshipIndex.friends(userId, after, limit));
+    }
+
+    public List<User> getFriendSuggestions(int userId, int limit) {
+        pageLimitValidation(limit);
+
+        if (userNotExists(userId)) {
+            log.error("user service get friend suggestions error: user with id {} was not found.", userId);
+            throw new UserNotFoundException(String.format("User with id: %s was not found!", userId));
+        }
+
+        return toUsers(friendshipIndex.suggestions(userId, limit));
     }
 
     public List<User> getCommonFriends(int userId, int otherId) {
@@ -106,7 +193,7 @@ public class UserService {
             log.debug("trying to get common friends for users with the same id: id {}", userId);
             throw new ValidationException(String.format("Users with the same id cannot be friends, id: %s", userId));
         }
-        return userStorage.getCommonFriends(userId, otherId);
+        return toUsers(friendshipIndex.common(userId, otherId));
     }
 
     public Optional<User> getUserById(int userId) {
@@ -119,12 +206,27 @@ public class UserService {
     }
 
     public boolean userNotExists(int userId) {
-        for (User user : userStorage.getUsers()) {
-            if (userId == user.getId()) {
-                return false;
-            }
+        return !userExistenceIndex.contains(userId);
+    }
+
+    private List<User> toUsers(int[] userIds) {
+        return userStorage.getUsersByIds(Arrays.stream(userIds).boxed().collect(Collectors.toList()));
+    }
+
+    private void pageLimitValidation(int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            log.error("user service pagination error: incorrect page limit {}.", limit);
+            throw new ValidationException(String.format("page limit must be between 1 and %s, limit: %s.",
+                    MAX_PAGE_SIZE, limit));
         }
-        return true;
+    }
+
+    private void importValidation(User user) {
+        if (Objects.isNull(user.getBirthday())) {
+            log.error("user import error: user with login {} has no birthday.", user.getLogin());
+            throw new ValidationException("User birthday is required.");
+        }
+        userValidation(user);
     }
 
     private void userValidation(User user) {
@@ -1,48 +1,95 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
-import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataRegistry;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.model.Mpa;
-import ru.yandex.practicum.filmorate.storage.mpa.MpaMapper;
-
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
-@Primary
+@Profile("!in-memory")
 public class FilmDbStorage implements FilmStorage {
 
+    private static final String FILMS_SQL = "SELECT f.id, f.name, f.description, f.release_date, f.duration, " +
+            "f.rate, f.mpa_id FROM films f";
+    private static final String GENRES_SQL = "SELECT fg.film_id, fg.film_genre_id FROM film_genres fg";
+    private static final String LIKES_SQL = "SELECT l.film_id, l.user_id FROM likes l";
+    private static final String ADD_LIKE_SQL = "INSERT INTO likes (user_id, film_id) " +
+            "SELECT CAST(? AS INT), CAST(? AS INT) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)";
+    private static final String LIKE_COUNT_SQL = "UPDATE films SET like_count = like_count + ? WHERE id = ?";
+    private static final int IN_CLAUSE_SIZE = 500;
+    private static final int BATCH_SIZE = 1000;
+    private static final int FETCH_SIZE = 500;
+    private static final int INSERT_ROWS = 100;
+
     private final JdbcTemplate jdbcTemplate;
     private final FilmMapper filmMapper;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final TransactionTemplate transactionTemplate;
 
-    public FilmDbStorage(JdbcTemplate jdbcTemplate, FilmMapper filmMapper) {
+    public FilmDbStorage(JdbcTemplate jdbcTemplate, FilmMapper filmMapper,
+                         ReferenceDataRegistry referenceDataRegistry,
+                         PlatformTransactionManager transactionManager) {
         this.jdbcTemplate = jdbcTemplate;
         this.filmMapper = filmMapper;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
     public List<Film> getFilms() {
+        List<Film> films = jdbcTemplate.query(FILMS_SQL + " ORDER BY f.id", filmMapper);
+        Map<Integer, Film> filmsById = mapById(films);
 
-        String sql = "SELECT f.id, f.name, f.description, f.release_date, f.duration, f.rate, f.mpa_id, m.id, m.name " +
-                "FROM films f JOIN mpas m ON f.mpa_id = m.id";
+        jdbcTemplate.query(GENRES_SQL + " ORDER BY fg.film_genre_id", genreCollector(filmsById));
+        jdbcTemplate.query(LIKES_SQL, likeCollector(filmsById));
+        return films;
+    }
 
-        List<Film> films = jdbcTemplate.query(sql, filmMapper);
+    @Override
+    public List<Film> getFilms(int after, int limit) {
+        List<Film> films = jdbcTemplate.query(FILMS_SQL + " WHERE f.id > ? ORDER BY f.id LIMIT ?",
+                filmMapper, after, limit);
+        hydrate(mapById(films));
+        return films;
+    }
 
-        for (Film film : films) {
-            film.setMpa(getMpaById(film.getId()));
-            film.setGenres(getGenresById(film.getId()));
-            film.setLikes(getLikesByFilmId(film.getId()));
+    // keyset pages: each page is read and hydrated before the consumer runs, so an export never holds
+    // a connection while it waits on the client or a second connection for hydration
+    @Override
+    public void streamFilms(Consumer<Film> consumer) {
+        List<Film> page = getFilms(0, FETCH_SIZE);
+        while (!page.isEmpty()) {
+            page.forEach(consumer);
+            page = page.size() < FETCH_SIZE ? List.of() : getFilms(page.get(page.size() - 1).getId(), FETCH_SIZE);
         }
-
-        return films;
     }
 
     @Override
@@ -52,31 +99,39 @@ public class FilmDbStorage implements FilmStorage {
                 .withTableName("films")
                 .usingGeneratedKeyColumns("id");
 
-        int filmId = simpleJdbcInsert.executeAndReturnKey(film.toMap()).intValue();
-        film.setId(filmId);
+        Map<String, Object> values = film.toMap();
+        values.put("like_count", 0);
+
+        int filmId = transactionTemplate.execute(status -> {
+            film.setId(simpleJdbcInsert.executeAndReturnKey(values).intValue());
 
-        String sqlGenres = "INSERT INTO film_genres (film_id, film_genre_id) VALUES (?, ?)";
-        Set<Genre> genres = film.getGenres();
-        if (genres != null) {
-            for (Genre genre : genres) {
-                jdbcTemplate.update(sqlGenres, filmId, genre.getId());
+            if (film.getGenres() != null) {
+                insertGenres(film);
             }
-            film.setGenres(getGenresById(filmId));
-        }
 
-        String sqlLikes = "INSERT INTO likes (user_id, film_id) VALUES (?, ?)";
-        Set<Integer> likes = film.getLikes();
-        if (likes != null) {
-            for (Integer userId : likes) {
-                jdbcTemplate.update(sqlLikes, userId, filmId);
+            if (film.getLikes() != null) {
+                insertLikes(film);
             }
-            film.setLikes(getLikesByFilmId(filmId));
-        }
+            return film.getId();
+        });
 
-        if (film.getMpa() != null) {
-            film.setMpa(getMpaById(film.getId()));
-        }
-        return film;
+        return loadFilms(List.of(filmId)).get(0);
+    }
+
+    // films go in as multi-row inserts, genres and likes as one batch each, all in a single transaction
+    @Override
+    public List<Film> createAll(List<Film> films) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < films.size(); from += INSERT_ROWS) {
+                insertFilms(films.subList(from, Math.min(from + INSERT_ROWS, films.size())));
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO film_genres (film_id, film_genre_id) VALUES (?, ?)",
+                    films.stream().flatMap(film -> genreRows(film).stream()).collect(Collectors.toList()));
+            jdbcTemplate.batchUpdate("INSERT INTO likes (user_id, film_id) VALUES (?, ?)",
+                    films.stream().flatMap(film -> likeRows(film).stream()).collect(Collectors.toList()));
+        });
+
+        return loadFilms(films.stream().map(Film::getId).collect(Collectors.toList()));
     }
 
     @Override
@@ -86,109 +141,330 @@ public class FilmDbStorage implements FilmStorage {
                 "release_date = ?, duration = ?, rate = ?, mpa_id = ? " +
                 "WHERE id = ?";
 
-        int update = jdbcTemplate.update(sql,
-                film.getName(),
-                film.getDescription(),
-                film.getReleaseDate(),
-                film.getDuration(),
-                film.getRate(),
-                film.getMpa().getId(),
-                film.getId());
-
-        if (film.getGenres() != null) {
-            updateGenres(film);
-        }
+        Boolean updated = transactionTemplate.execute(status -> {
+            int update = jdbcTemplate.update(sql,
+                    film.getName(),
+                    film.getDescription(),
+                    film.getReleaseDate(),
+                    film.getDuration(),
+                    film.getRate(),
+                    film.getMpa().getId(),
+                    film.getId());
+
+            if (update == 0) {
+                return false;
+            }
 
-        if (film.getLikes() != null) {
-            updateLikes(film);
-        }
+            if (film.getGenres() != null) {
+                jdbcTemplate.update("DELETE FROM film_genres WHERE film_id = ?", film.getId());
+                insertGenres(film);
+            }
 
-        if (update > 0) {
-            film.setMpa(getMpaById(film.getId()));
-            film.setGenres(getGenresById(film.getId()));
-            return film;
-        } else {
+            if (film.getLikes() != null) {
+                jdbcTemplate.update("DELETE FROM likes WHERE film_id = ?", film.getId());
+                insertLikes(film);
+            }
+            return true;
+        });
+
+        if (!Boolean.TRUE.equals(updated)) {
             return null;
         }
+        return loadFilms(List.of(film.getId())).get(0);
     }
 
-    private void updateLikes(Film film) {
-        Set<Integer> oldLikes = getLikesByFilmId(film.getId());
-        String sqlDeleteLikes = "DELETE FROM likes WHERE film_id = ?";
-        oldLikes.forEach(filmLike -> jdbcTemplate.update(sqlDeleteLikes, film.getId()));
+    @Override
+    public Optional<Film> getFilmById(int filmId) {
+        return loadFilms(List.of(filmId)).stream().findFirst();
+    }
 
-        Set<Integer> newLikes = film.getLikes();
-        String sqlUpdateLikes = "INSERT INTO likes (user_id, film_id) VALUES (?, ?)";
-        newLikes.forEach(userId -> jdbcTemplate.update(sqlUpdateLikes, userId, film.getId()));
+    @Override
+    public List<Film> getFilmsByIds(Collection<Integer> filmIds) {
+        return loadFilms(filmIds);
     }
 
-    private void updateGenres(Film film) {
-        Set<Integer> oldGenreIds = getGenresById(film.getId()).stream().map(Genre::getId).collect(Collectors.toSet());
-        String sqlDeleteGenres = "DELETE FROM film_genres WHERE film_id = ?";
-        oldGenreIds.forEach(filmGenreId -> jdbcTemplate.update(sqlDeleteGenres, film.getId()));
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        List<Film> films = jdbcTemplate.query(FILMS_SQL + " ORDER BY f.like_count DESC, f.id LIMIT ?",
+                filmMapper, count);
+        hydrate(mapById(films));
+        return films;
+    }
+
+    @Override
+    public Map<Integer, Integer> getLikeCounts() {
+        Map<Integer, Integer> likeCounts = new HashMap<>();
+        jdbcTemplate.query("SELECT f.id, f.like_count FROM films f", rs -> {
+            likeCounts.put(rs.getInt("id"), rs.getInt("like_count"));
+        });
+        return likeCounts;
+    }
 
-        List<Integer> filmGenreIds = film.getGenres().stream().map(Genre::getId).collect(Collectors.toList());
-        String sqlUpdateGenres = "INSERT INTO film_genres (film_id, film_genre_id) VALUES (?, ?)";
-        filmGenreIds.forEach(filmGenreId -> jdbcTemplate.update(sqlUpdateGenres, film.getId(), filmGenreId));
+    public Map<Integer, Integer> getLikeCounts(Collection<Integer> filmIds) {
+        Map<Integer, Integer> likeCounts = new HashMap<>();
+        forEachChunk(new ArrayList<>(filmIds), (inClause, args) -> jdbcTemplate.query(
+                "SELECT f.id, f.like_count FROM films f WHERE f.id IN (" + inClause + ")", rs -> {
+                    likeCounts.put(rs.getInt("id"), rs.getInt("like_count"));
+                }, args));
+        return likeCounts;
     }
 
     @Override
-    public Optional<Film> getFilmById(int filmId) {
+    public int getLikesCount(int filmId) {
+        List<Integer> likeCounts = jdbcTemplate.queryForList("SELECT f.like_count FROM films f WHERE f.id = ?",
+                Integer.class, filmId);
+        return likeCounts.isEmpty() ? 0 : likeCounts.get(0);
+    }
 
-        String sql = "SELECT f.id, f.name, f.description, f.release_date, f.duration, f.rate, f.mpa_id " +
-                "FROM films f WHERE ID = ?";
+    public int repairLikeCounts() {
+        String sql = "UPDATE films f SET like_count = " +
+                "(SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id) " +
+                "WHERE like_count <> (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id)";
+        return jdbcTemplate.update(sql);
+    }
 
-        Optional<Film> film = Optional.ofNullable(jdbcTemplate.queryForObject(sql, filmMapper, filmId));
-        film.ifPresent(value -> value.setMpa(getMpaById(filmId)));
-        film.ifPresent(value -> value.setGenres(getGenresById(filmId)));
-        film.ifPresent(value -> value.setLikes(getLikesByFilmId(filmId)));
-        return film;
+    @Override
+    public List<Integer> getFilmIds() {
+        return jdbcTemplate.queryForList("SELECT f.id FROM films f", Integer.class);
     }
 
     @Override
-    public void addLike(int filmId, int userId) {
-        String sql = "INSERT INTO likes (user_id, film_id) VALUES (?, ?)";
-        jdbcTemplate.update(sql, userId, filmId);
+    public boolean existsById(int filmId) {
+        String sql = "SELECT COUNT(*) FROM films f WHERE f.id = ?";
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, filmId);
+        return count != null && count > 0;
+    }
+
+    @Override
+    public void streamLikes(BiConsumer<Integer, Integer> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(LIKES_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            consumer.accept(rs.getInt("film_id"), rs.getInt("user_id"));
+        });
+    }
+
+    // a concurrent insert of the same like can still pass the NOT EXISTS check and hit the key
+    @Override
+    public boolean addLike(int filmId, int userId) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (jdbcTemplate.update(ADD_LIKE_SQL, userId, filmId, filmId, userId) == 0) {
+                    return false;
+                }
+                jdbcTemplate.update(LIKE_COUNT_SQL, 1, filmId);
+                return true;
+            }));
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
     }
 
     @Override
-    public void removeLike(int filmId, int userId) {
+    public boolean removeLike(int filmId, int userId) {
         String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
-        jdbcTemplate.update(sql, filmId, userId);
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(sql, filmId, userId) == 0) {
+                return false;
+            }
+            jdbcTemplate.update(LIKE_COUNT_SQL, -1, filmId);
+            return true;
+        }));
+    }
+
+    // joins the requested pairs so that each one is a point lookup on the (film_id, user_id) key
+    @Override
+    public Set<Like> findLikes(Collection<Like> likes) {
+        List<Like> requested = new ArrayList<>(new HashSet<>(likes));
+        Set<Like> found = new HashSet<>();
+
+        for (int from = 0; from < requested.size(); from += IN_CLAUSE_SIZE) {
+            List<Like> chunk = requested.subList(from, Math.min(from + IN_CLAUSE_SIZE, requested.size()));
+            Object[] args = chunk.stream()
+                    .flatMap(like -> Stream.of(like.getFilmId(), like.getUserId()))
+                    .toArray();
+            String pairs = String.join(", ", Collections.nCopies(chunk.size(), "(?, ?)"));
+            jdbcTemplate.query(LIKES_SQL + " JOIN (VALUES " + pairs + ") AS p(film_id, user_id) " +
+                    "ON l.film_id = p.film_id AND l.user_id = p.user_id", rs -> {
+                found.add(new Like(rs.getInt("film_id"), rs.getInt("user_id")));
+            }, args);
+        }
+        return found;
+    }
+
+    // likes that already exist are skipped, so a batch can be written again after a partial failure
+    @Override
+    public List<Like> addLikes(List<Like> likes) {
+        return transactionTemplate.execute(status -> {
+            int[][] inserted = jdbcTemplate.batchUpdate(ADD_LIKE_SQL, likes, BATCH_SIZE, (ps, like) -> {
+                ps.setInt(1, like.getUserId());
+                ps.setInt(2, like.getFilmId());
+                ps.setInt(3, like.getFilmId());
+                ps.setInt(4, like.getUserId());
+            });
+            List<Like> added = changed(likes, inserted);
+            updateLikeCounts(added, 1);
+            return added;
+        });
     }
 
-    private Set<Genre> getGenresById(int filmId) {
-        String genresSql = "SELECT g.id, g.name FROM genres g " +
-                "JOIN film_genres fg ON g.id = fg.film_genre_id " +
-                "WHERE fg.film_id = ?";
+    @Override
+    public void removeLikes(List<Like> likes) {
+        String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
+        transactionTemplate.executeWithoutResult(status -> {
+            int[][] deleted = jdbcTemplate.batchUpdate(sql, likes, BATCH_SIZE, (ps, like) -> {
+                ps.setInt(1, like.getFilmId());
+                ps.setInt(2, like.getUserId());
+            });
+            updateLikeCounts(changed(likes, deleted), -1);
+        });
+    }
+
+    public void updateLikes(List<Like> added, List<Like> removed) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!added.isEmpty()) {
+                addLikes(added);
+            }
+            if (!removed.isEmpty()) {
+                removeLikes(removed);
+            }
+        });
+    }
+
+    private List<Film> loadFilms(Collection<Integer> filmIds) {
+        List<Integer> ids = new ArrayList<>(filmIds);
+        Map<Integer, Film> filmsById = new HashMap<>();
+
+        forEachChunk(ids, (inClause, args) -> filmsById.putAll(mapById(
+                jdbcTemplate.query(FILMS_SQL + " WHERE f.id IN (" + inClause + ")", filmMapper, args))));
+        hydrate(filmsById);
+
+        return ids.stream()
+                .map(filmsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private void hydrate(Map<Integer, Film> filmsById) {
+        forEachChunk(new ArrayList<>(filmsById.keySet()), (inClause, args) -> {
+            jdbcTemplate.query(GENRES_SQL + " WHERE fg.film_id IN (" + inClause + ") ORDER BY fg.film_genre_id",
+                    genreCollector(filmsById), args);
+            jdbcTemplate.query(LIKES_SQL + " WHERE l.film_id IN (" + inClause + ")",
+                    likeCollector(filmsById), args);
+        });
+    }
 
-        SqlRowSet genresRowSet = jdbcTemplate.queryForRowSet(genresSql, filmId);
-        Set<Genre> filmGenres = new HashSet<>();
-        while (genresRowSet.next()) {
-            Genre genre = new Genre(genresRowSet.getInt("id"),
-                    genresRowSet.getString("name"));
-            filmGenres.add(genre);
+    private void forEachChunk(List<Integer> ids, BiConsumer<String, Object[]> action) {
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_SIZE, ids.size()));
+            action.accept(String.join(", ", Collections.nCopies(chunk.size(), "?")), chunk.toArray());
         }
-        return filmGenres;
     }
 
-    private Mpa getMpaById(int filmId) {
-        String mpaSql = "SELECT m.id, m.name FROM mpas m " +
-                "JOIN films f ON f.mpa_id = m.id " +
-                "WHERE f.id = ?";
+    private Map<Integer, Film> mapById(List<Film> films) {
+        Map<Integer, Film> filmsById = new HashMap<>();
+        films.forEach(film -> filmsById.put(film.getId(), film));
+        return filmsById;
+    }
+
+    private RowCallbackHandler genreCollector(Map<Integer, Film> filmsById) {
+        return rs -> {
+            Film film = filmsById.get(rs.getInt("film_id"));
+            if (film != null) {
+                film.getGenres().add(referenceDataRegistry.getGenre(rs.getInt("film_genre_id")));
+            }
+        };
+    }
+
+    private RowCallbackHandler likeCollector(Map<Integer, Film> filmsById) {
+        return rs -> {
+            Film film = filmsById.get(rs.getInt("film_id"));
+            if (film != null) {
+                film.getLikes().add(rs.getInt("user_id"));
+            }
+        };
+    }
+
+    private void insertFilms(List<Film> films) {
+        String sql = "INSERT INTO films (name, description, release_date, duration, rate, mpa_id, like_count) " +
+                "VALUES " + String.join(", ", Collections.nCopies(films.size(), "(?, ?, ?, ?, ?, ?, ?)"));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, new String[]{"id"});
+            int index = 1;
+            for (Film film : films) {
+                statement.setString(index++, film.getName());
+                statement.setString(index++, film.getDescription());
+                statement.setObject(index++, film.getReleaseDate());
+                statement.setLong(index++, film.getDuration());
+                statement.setInt(index++, film.getRate());
+                statement.setObject(index++, film.getMpa() == null ? null : film.getMpa().getId());
+                statement.setInt(index++, film.getLikesCount());
+            }
+            return statement;
+        }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < films.size(); i++) {
+            films.get(i).setId(((Number) keys.get(i).values().iterator().next()).intValue());
+        }
+    }
 
-        return jdbcTemplate.queryForObject(mpaSql, new MpaMapper(), filmId);
+    private void insertGenres(Film film) {
+        String sql = "INSERT INTO film_genres (film_id, film_genre_id) VALUES (?, ?)";
+        jdbcTemplate.batchUpdate(sql, genreRows(film));
     }
 
-    private Set<Integer> getLikesByFilmId(int filmId) {
-        String sql = "SELECT l.user_id FROM films f JOIN likes l ON f.id = l.film_id WHERE f.id = ?";
+    private void insertLikes(Film film) {
+        String sql = "INSERT INTO likes (user_id, film_id) VALUES (?, ?)";
+        jdbcTemplate.batchUpdate(sql, likeRows(film));
+        jdbcTemplate.update("UPDATE films SET like_count = ? WHERE id = ?", film.getLikesCount(), film.getId());
+    }
 
-        SqlRowSet likesRowSet = jdbcTemplate.queryForRowSet(sql, filmId);
-        Set<Integer> likes = new HashSet<>();
+    private static List<Object[]> genreRows(Film film) {
+        if (film.getGenres() == null) {
+            return List.of();
+        }
+        return film.getGenres().stream()
+                .map(Genre::getId)
+                .distinct()
+                .map(genreId -> new Object[]{film.getId(), genreId})
+                .collect(Collectors.toList());
+    }
 
-        while (likesRowSet.next()) {
-            likes.add(likesRowSet.getInt("user_id"));
+    private static List<Object[]> likeRows(Film film) {
+        if (film.getLikes() == null) {
+            return List.of();
         }
-        return likes;
+        return film.getLikes().stream()
+                .map(userId -> new Object[]{userId, film.getId()})
+                .collect(Collectors.toList());
+    }
+
+    private static List<Like> changed(List<Like> likes, int[][] rowCounts) {
+        List<Like> changed = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : rowCounts) {
+            for (int rows : batch) {
+                if (rows != 0) {
+                    changed.add(likes.get(index));
+                }
+                index++;
+            }
+        }
+        return changed;
+    }
+
+    private void updateLikeCounts(List<Like> likes, int sign) {
+        Map<Integer, Integer> deltas = new HashMap<>();
+        likes.forEach(like -> deltas.merge(like.getFilmId(), sign, Integer::sum));
+        List<Object[]> rows = deltas.entrySet().stream()
+                .map(delta -> new Object[]{delta.getValue(), delta.getKey()})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(LIKE_COUNT_SQL, rows);
     }
 }
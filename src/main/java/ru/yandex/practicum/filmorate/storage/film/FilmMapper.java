@@ -2,15 +2,29 @@ package ru.yandex.practicum.filmorate.storage.film;
 
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataRegistry;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.LikeSet;
+import ru.yandex.practicum.filmorate.model.Mpa;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.LinkedHashSet;
 
 @Component
 public class FilmMapper implements RowMapper<Film> {
+
+    private final ReferenceDataRegistry referenceDataRegistry;
+
+    public FilmMapper(ReferenceDataRegistry referenceDataRegistry) {
+        this.referenceDataRegistry = referenceDataRegistry;
+    }
+
     @Override
     public Film mapRow(ResultSet rs, int rowNum) throws SQLException {
+        int mpaId = rs.getInt("mpa_id");
+        Mpa mpa = rs.wasNull() ? null : referenceDataRegistry.getMpa(mpaId);
+
         return Film.builder()
                 .id(rs.getInt("id"))
                 .name(rs.getString("name"))
@@ -18,6 +32,9 @@ public class FilmMapper implements RowMapper<Film> {
                 .releaseDate(rs.getDate("release_date").toLocalDate())
                 .duration(rs.getInt("duration"))
                 .rate(rs.getInt("rate"))
+                .mpa(mpa)
+                .genres(new LinkedHashSet<>())
+                .likes(new LikeSet())
                 .build();
     }
 }
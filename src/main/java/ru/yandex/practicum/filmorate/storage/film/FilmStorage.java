@@ -1,20 +1,55 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     List<Film> getFilms();
 
+    List<Film> getFilms(int after, int limit);
+
+    void streamFilms(Consumer<Film> consumer);
+
     Film create(Film film);
 
+    List<Film> createAll(List<Film> films);
+
     Film update(Film film);
 
     Optional<Film> getFilmById(int filmId);
 
-    void addLike(int filmId, int userId);
+    List<Film> getFilmsByIds(Collection<Integer> filmIds);
+
+    List<Film> getPopularFilms(int count);
+
+    Map<Integer, Integer> getLikeCounts();
+
+    int getLikesCount(int filmId);
+
+    List<Integer> getFilmIds();
+
+    boolean existsById(int filmId);
+
+    void streamLikes(BiConsumer<Integer, Integer> consumer);
+
+    // true when the like was not there before
+    boolean addLike(int filmId, int userId);
+
+    // true when the like was there before
+    boolean removeLike(int filmId, int userId);
+
+    Set<Like> findLikes(Collection<Like> likes);
+
+    // the likes that were not there before
+    List<Like> addLikes(List<Like> likes);
 
-    void removeLike(int filmId, int userId);
+    void removeLikes(List<Like> likes);
 }
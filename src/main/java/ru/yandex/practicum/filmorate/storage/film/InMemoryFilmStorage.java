@@ -1,76 +1,360 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataReloadedEvent;
 import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.index.PopularityRanking;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.LikeSet;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.journal.Journal;
+import ru.yandex.practicum.filmorate.storage.journal.JournalCodec;
+import ru.yandex.practicum.filmorate.storage.journal.JournalFactory;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
+@Profile("in-memory")
 public class InMemoryFilmStorage implements FilmStorage {
 
-    private final Map<Integer, Film> films = new HashMap<>();
+    private static final byte PUT_FILM = 1;
+    private static final byte ADD_LIKE = 2;
+    private static final byte REMOVE_LIKE = 3;
 
-    private int generatorId = 0;
+    private final Map<Integer, Film> films = new ConcurrentHashMap<>();
+    private final AtomicInteger generatorId = new AtomicInteger();
+    private final PopularityRanking ranking = new PopularityRanking();
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final Journal journal;
+
+    public InMemoryFilmStorage(ReferenceDataRegistry referenceDataRegistry, JournalFactory journalFactory) {
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.journal = journalFactory.open("films");
+    }
+
+    @PostConstruct
+    public void restore() {
+        journal.open(this::readSnapshot, this::replay, this::writeSnapshot);
+        if (journal.isEnabled()) {
+            log.info("film storage was restored from journal, films: {}", films.size());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        journal.close();
+    }
 
     private int generateId() {
-        return ++generatorId;
+        return generatorId.incrementAndGet();
     }
 
     @Override
     public List<Film> getFilms() {
-        return new ArrayList<>(films.values());
+        return getFilms(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Film> getFilms(int after, int limit) {
+        List<Film> page = new ArrayList<>();
+        int lastId = generatorId.get();
+        for (int id = Math.max(after, 0) + 1; id <= lastId && page.size() < limit; id++) {
+            Film film = films.get(id);
+            if (film != null) {
+                page.add(film);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void streamFilms(Consumer<Film> consumer) {
+        int lastId = generatorId.get();
+        for (int id = 1; id <= lastId; id++) {
+            Film film = films.get(id);
+            if (film != null) {
+                consumer.accept(film);
+            }
+        }
     }
 
     @Override
     public Film create(Film film) {
         film.setId(generateId());
-        films.put(film.getId(), film);
+        prepare(film, new LikeSet());
+        journal.append(PUT_FILM, output -> writeFilm(output, film), () -> {
+            films.put(film.getId(), film);
+            ranking.put(film.getId(), film.getLikesCount());
+        });
         log.info("new film was added {}", film);
 
         return film;
     }
 
+    @Override
+    public List<Film> createAll(List<Film> films) {
+        films.forEach(this::create);
+        return films;
+    }
+
     @Override
     public Film update(Film film) {
-        if (films.containsKey(film.getId())) {
-            films.put(film.getId(), film);
-            log.info("film with id {} was updated. film: {}", film.getId(), film);
-            return film;
-        } else {
+        Film existing = films.get(film.getId());
+        if (existing == null) {
             log.error("film update error: film with id {} was attempted to update.", film.getId());
             throw new FilmNotFoundException(String.format("Film with id: %s was not found!", film.getId()));
         }
 
+        if (film.getGenres() == null) {
+            film.setGenres(existing.getGenres());
+        }
+        prepare(film, existing.getLikes());
+        journal.append(PUT_FILM, output -> writeFilm(output, film), () -> {
+            films.put(film.getId(), film);
+            ranking.put(film.getId(), film.getLikesCount());
+        });
+        log.info("film with id {} was updated. film: {}", film.getId(), film);
+        return film;
     }
 
     @Override
     public Optional<Film> getFilmById(int filmId) {
-        if (films.containsKey(filmId)) {
-            return Optional.ofNullable(films.get(filmId));
-        } else {
+        Film film = films.get(filmId);
+        if (film == null) {
             log.error("get film by id error: film with id {} not exists.", filmId);
             throw new FilmNotFoundException(String.format("Film with id: %s was not found!", filmId));
         }
+        return Optional.of(film);
     }
 
     @Override
-    public void addLike(int filmId, int userId) {
-        for (Film film : getFilms()) {
-            if (film.getId() == filmId) {
-                film.getLikes().add(userId);
+    public List<Film> getFilmsByIds(Collection<Integer> filmIds) {
+        List<Film> result = new ArrayList<>();
+        for (Integer filmId : filmIds) {
+            Film film = films.get(filmId);
+            if (film != null) {
+                result.add(film);
             }
         }
+        return result;
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return getFilmsByIds(ranking.top(count));
+    }
+
+    @Override
+    public Map<Integer, Integer> getLikeCounts() {
+        Map<Integer, Integer> likeCounts = new HashMap<>();
+        for (Film film : films.values()) {
+            likeCounts.put(film.getId(), film.getLikesCount());
+        }
+        return likeCounts;
+    }
+
+    @Override
+    public int getLikesCount(int filmId) {
+        Film film = films.get(filmId);
+        return film == null ? 0 : film.getLikesCount();
+    }
+
+    @Override
+    public List<Integer> getFilmIds() {
+        return new ArrayList<>(films.keySet());
+    }
+
+    @Override
+    public boolean existsById(int filmId) {
+        return films.containsKey(filmId);
+    }
+
+    @Override
+    public void streamLikes(BiConsumer<Integer, Integer> consumer) {
+        for (Film film : films.values()) {
+            film.getLikes().forEach(userId -> consumer.accept(film.getId(), userId));
+        }
     }
 
     @Override
-    public void removeLike(int filmId, int userId) {
-        for (Film film : getFilms()) {
-            if (film.getId() == filmId) {
-                film.getLikes().remove(userId);
+    public boolean addLike(int filmId, int userId) {
+        boolean[] added = {false};
+        Film film = films.get(filmId);
+        if (film != null && !film.getLikes().contains(userId)) {
+            journal.append(ADD_LIKE, output -> writeLike(output, filmId, userId), () -> {
+                Film current = films.get(filmId);
+                if (current != null && current.getLikes().add(userId)) {
+                    ranking.likeAdded(filmId);
+                    added[0] = true;
+                }
+            });
+        }
+        return added[0];
+    }
+
+    @Override
+    public boolean removeLike(int filmId, int userId) {
+        boolean[] removed = {false};
+        Film film = films.get(filmId);
+        if (film != null && film.getLikes().contains(userId)) {
+            journal.append(REMOVE_LIKE, output -> writeLike(output, filmId, userId), () -> {
+                Film current = films.get(filmId);
+                if (current != null && current.getLikes().remove(userId)) {
+                    ranking.likeRemoved(filmId);
+                    removed[0] = true;
+                }
+            });
+        }
+        return removed[0];
+    }
+
+    @Override
+    public Set<Like> findLikes(Collection<Like> likes) {
+        Set<Like> found = new HashSet<>();
+        for (Like like : likes) {
+            Film film = films.get(like.getFilmId());
+            if (film != null && film.getLikes().contains(like.getUserId())) {
+                found.add(like);
             }
         }
+        return found;
+    }
+
+    @Override
+    public List<Like> addLikes(List<Like> likes) {
+        return likes.stream()
+                .filter(like -> addLike(like.getFilmId(), like.getUserId()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void removeLikes(List<Like> likes) {
+        for (Like like : likes) {
+            removeLike(like.getFilmId(), like.getUserId());
+        }
+    }
+
+    private void prepare(Film film, Set<Integer> currentLikes) {
+        Set<Integer> likes = currentLikes;
+        if (film.getLikes() != null) {
+            likes = new LikeSet(film.getLikes());
+        }
+        film.setLikes(likes);
+        resolveReferenceData(film);
+    }
+
+    @EventListener(ReferenceDataReloadedEvent.class)
+    public void resolveReferenceData() {
+        films.values().forEach(this::resolveReferenceData);
+        log.info("films were resolved against reloaded reference data, films: {}", films.size());
+    }
+
+    private void resolveReferenceData(Film film) {
+        if (film.getMpa() != null) {
+            film.setMpa(referenceDataRegistry.getMpa(film.getMpa().getId()));
+        }
+
+        Set<Genre> genres = new ConcurrentSkipListSet<>(Comparator.comparingInt(Genre::getId));
+        if (film.getGenres() != null) {
+            genres.addAll(film.getGenres().stream()
+                    .map(genre -> referenceDataRegistry.getGenre(genre.getId()))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+        }
+        film.setGenres(genres);
+    }
+
+    private void put(Film film) {
+        prepare(film, film.getLikes());
+        films.put(film.getId(), film);
+        ranking.put(film.getId(), film.getLikesCount());
+        generatorId.accumulateAndGet(film.getId(), Math::max);
+    }
+
+    private void replay(byte type, DataInput input) throws IOException {
+        switch (type) {
+            case PUT_FILM:
+                put(readFilm(input));
+                break;
+            case ADD_LIKE:
+                addLike(input.readInt(), input.readInt());
+                break;
+            case REMOVE_LIKE:
+                removeLike(input.readInt(), input.readInt());
+                break;
+            default:
+                throw new IOException("unknown film journal record: " + type);
+        }
+    }
+
+    private void readSnapshot(DataInput input) throws IOException {
+        generatorId.set(input.readInt());
+        while (input.readBoolean()) {
+            put(readFilm(input));
+        }
+    }
+
+    private void writeSnapshot(DataOutput output) throws IOException {
+        output.writeInt(generatorId.get());
+        for (Film film : films.values()) {
+            output.writeBoolean(true);
+            writeFilm(output, film);
+        }
+        output.writeBoolean(false);
+    }
+
+    private static void writeLike(DataOutput output, int filmId, int userId) throws IOException {
+        output.writeInt(filmId);
+        output.writeInt(userId);
+    }
+
+    private static void writeFilm(DataOutput output, Film film) throws IOException {
+        output.writeInt(film.getId());
+        JournalCodec.writeString(output, film.getName());
+        JournalCodec.writeString(output, film.getDescription());
+        JournalCodec.writeDate(output, film.getReleaseDate());
+        output.writeLong(film.getDuration());
+        output.writeInt(film.getRate());
+        output.writeInt(film.getMpa() == null ? 0 : film.getMpa().getId());
+        JournalCodec.writeIds(output, film.getGenres().stream().map(Genre::getId).collect(Collectors.toList()));
+        JournalCodec.writeIds(output, film.getLikes());
+    }
+
+    private static Film readFilm(DataInput input) throws IOException {
+        Film film = Film.builder()
+                .id(input.readInt())
+                .name(JournalCodec.readString(input))
+                .description(JournalCodec.readString(input))
+                .releaseDate(JournalCodec.readDate(input))
+                .duration(input.readLong())
+                .rate(input.readInt())
+                .build();
+        int mpaId = input.readInt();
+        if (mpaId != 0) {
+            film.setMpa(new Mpa(mpaId, null));
+        }
+        film.setGenres(JournalCodec.readIds(input).stream()
+                .map(genreId -> new Genre(genreId, null))
+                .collect(Collectors.toSet()));
+        film.setLikes(new LikeSet(JournalCodec.readIds(input)));
+        return film;
     }
 }
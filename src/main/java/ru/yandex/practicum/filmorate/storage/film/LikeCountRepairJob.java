@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@Profile("!in-memory")
+public class LikeCountRepairJob {
+
+    private final FilmDbStorage filmDbStorage;
+
+    public LikeCountRepairJob(FilmDbStorage filmDbStorage) {
+        this.filmDbStorage = filmDbStorage;
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.likes.repair-interval-ms:3600000}",
+            fixedDelayString = "${filmorate.likes.repair-interval-ms:3600000}")
+    public void repair() {
+        int repaired = filmDbStorage.repairLikeCounts();
+        if (repaired > 0) {
+            log.warn("like counts were repaired for {} films.", repaired);
+        } else {
+            log.debug("like counts are consistent with likes.");
+        }
+    }
+}
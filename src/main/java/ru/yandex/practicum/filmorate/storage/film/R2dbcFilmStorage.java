@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.LikeSet;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "filmorate.reactive.enabled", havingValue = "true")
+public class R2dbcFilmStorage {
+
+    private static final String FILMS_SQL = "SELECT f.id, f.name, f.description, f.release_date, f.duration, " +
+            "f.rate, f.mpa_id FROM films f";
+    private static final String GENRES_SQL = "SELECT fg.film_id, fg.film_genre_id FROM film_genres fg " +
+            "WHERE fg.film_id IN (:ids) ORDER BY fg.film_genre_id";
+    private static final String LIKES_SQL = "SELECT l.film_id, l.user_id FROM likes l WHERE l.film_id IN (:ids)";
+    private static final int HYDRATION_BATCH = 64;
+
+    private final DatabaseClient databaseClient;
+    private final ReferenceDataRegistry referenceDataRegistry;
+
+    public R2dbcFilmStorage(DatabaseClient databaseClient, ReferenceDataRegistry referenceDataRegistry) {
+        this.databaseClient = databaseClient;
+        this.referenceDataRegistry = referenceDataRegistry;
+    }
+
+    public Mono<Film> getFilmById(int filmId) {
+        return databaseClient.sql(FILMS_SQL + " WHERE f.id = :id")
+                .bind("id", filmId)
+                .map((row, metadata) -> mapFilm(row))
+                .one()
+                .flatMap(film -> hydrate(List.of(film)).next());
+    }
+
+    // films are hydrated batch by batch as rows arrive, and the next batch is not requested until this one is sent
+    public Flux<Film> getPopularFilms(int count) {
+        return databaseClient.sql(FILMS_SQL + " ORDER BY f.like_count DESC, f.id LIMIT :count")
+                .bind("count", count)
+                .map((row, metadata) -> mapFilm(row))
+                .all()
+                .buffer(HYDRATION_BATCH)
+                .concatMap(this::hydrate);
+    }
+
+    private Flux<Film> hydrate(List<Film> films) {
+        Map<Integer, Film> filmsById = new HashMap<>();
+        films.forEach(film -> filmsById.put(film.getId(), film));
+
+        Mono<Void> genres = databaseClient.sql(GENRES_SQL)
+                .bind("ids", filmsById.keySet())
+                .map((row, metadata) -> filmsById.get(row.get("film_id", Integer.class)).getGenres()
+                        .add(referenceDataRegistry.getGenre(row.get("film_genre_id", Integer.class))))
+                .all()
+                .then();
+        Mono<Void> likes = databaseClient.sql(LIKES_SQL)
+                .bind("ids", filmsById.keySet())
+                .map((row, metadata) -> filmsById.get(row.get("film_id", Integer.class)).getLikes()
+                        .add(row.get("user_id", Integer.class)))
+                .all()
+                .then();
+        return genres.then(likes).thenMany(Flux.fromIterable(films));
+    }
+
+    private Film mapFilm(Row row) {
+        Integer mpaId = row.get("mpa_id", Integer.class);
+        Integer duration = row.get("duration", Integer.class);
+        Integer rate = row.get("rate", Integer.class);
+
+        return Film.builder()
+                .id(row.get("id", Integer.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .releaseDate(row.get("release_date", LocalDate.class))
+                .duration(duration == null ? 0 : duration)
+                .rate(rate == null ? 0 : rate)
+                .mpa(mpaId == null ? null : referenceDataRegistry.getMpa(mpaId))
+                .genres(new LinkedHashSet<>())
+                .likes(new LikeSet())
+                .build();
+    }
+}
@@ -0,0 +1,432 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@Primary
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "filmorate.likes.write-behind.enabled", havingValue = "true")
+public class WriteBehindFilmStorage implements FilmStorage {
+
+    private final FilmDbStorage delegate;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<Like> queue;
+    private final Map<Integer, Map<Integer, PendingLike>> pendingByFilm = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private final Set<Like> retry = new LinkedHashSet<>();
+    private final AtomicLong settles = new AtomicLong();
+    private final Thread flusher = new Thread(this::run, "like-write-behind");
+    private volatile boolean running = true;
+
+    public WriteBehindFilmStorage(FilmDbStorage delegate,
+                                  @Value("${filmorate.likes.write-behind.batch-size:1000}") int batchSize,
+                                  @Value("${filmorate.likes.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+                                  @Value("${filmorate.likes.write-behind.queue-capacity:100000}") int queueCapacity) {
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.join();
+        try {
+            flushPending();
+        } catch (RuntimeException e) {
+            log.error("like write-behind stopped with unwritten likes, films: {}", pendingByFilm.size(), e);
+            throw e;
+        }
+        log.info("like write-behind stopped, pending likes: {}", pendingByFilm.size());
+    }
+
+    public void flushPending() {
+        List<Like> batch = new ArrayList<>();
+        do {
+            queue.drainTo(batch, batchSize);
+            flush(batch);
+            batch.clear();
+        } while (!queue.isEmpty());
+    }
+
+    @Override
+    public List<Film> getFilms() {
+        return withPending(delegate.getFilms());
+    }
+
+    @Override
+    public List<Film> getFilms(int after, int limit) {
+        return withPending(delegate.getFilms(after, limit));
+    }
+
+    @Override
+    public void streamFilms(Consumer<Film> consumer) {
+        delegate.streamFilms(film -> consumer.accept(withPending(film)));
+    }
+
+    @Override
+    public Film create(Film film) {
+        return delegate.create(film);
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> films) {
+        return delegate.createAll(films);
+    }
+
+    @Override
+    public Film update(Film film) {
+        if (film.getLikes() != null) {
+            pendingByFilm.remove(film.getId());
+            settles.incrementAndGet();
+        }
+        return withPending(delegate.update(film));
+    }
+
+    @Override
+    public Optional<Film> getFilmById(int filmId) {
+        return delegate.getFilmById(filmId).map(this::withPending);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(Collection<Integer> filmIds) {
+        return withPending(delegate.getFilmsByIds(filmIds));
+    }
+
+    // only films with net removals can fall out of the stored top, so the page is widened by their number;
+    // films with net additions outside of it are ranked by the stored count plus the pending delta
+    // and loaded only when they make the result
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        Map<Integer, Integer> deltas = pendingDeltas();
+        long removedFilms = deltas.values().stream().filter(delta -> delta < 0).count();
+        int limit = (int) Math.min(count + removedFilms, Integer.MAX_VALUE);
+        Map<Integer, Film> films = new HashMap<>();
+        Map<Integer, Integer> likeCounts = new HashMap<>();
+        withPending(delegate.getPopularFilms(limit)).forEach(film -> {
+            films.put(film.getId(), film);
+            likeCounts.put(film.getId(), film.getLikesCount());
+        });
+        List<Integer> addedFilmIds = deltas.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0 && !films.containsKey(entry.getKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        delegate.getLikeCounts(addedFilmIds).forEach((filmId, likes) ->
+                likeCounts.put(filmId, likes + deltas.get(filmId)));
+
+        List<Integer> top = likeCounts.keySet().stream()
+                .sorted(Comparator.<Integer>comparingInt(likeCounts::get).reversed()
+                        .thenComparingInt(Integer::intValue))
+                .limit(count)
+                .collect(Collectors.toList());
+        List<Integer> missing = top.stream()
+                .filter(filmId -> !films.containsKey(filmId))
+                .collect(Collectors.toList());
+        withPending(delegate.getFilmsByIds(missing)).forEach(film -> films.put(film.getId(), film));
+        return top.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<Integer, Integer> getLikeCounts() {
+        Map<Integer, Integer> likeCounts = delegate.getLikeCounts();
+        pendingDeltas().forEach((filmId, delta) -> likeCounts.merge(filmId, delta, Integer::sum));
+        return likeCounts;
+    }
+
+    @Override
+    public int getLikesCount(int filmId) {
+        int likesCount = delegate.getLikesCount(filmId);
+        for (PendingLike like : pendingByFilm.getOrDefault(filmId, Collections.emptyMap()).values()) {
+            if (like.changed) {
+                likesCount += like.added ? 1 : -1;
+            }
+        }
+        return likesCount;
+    }
+
+    @Override
+    public List<Integer> getFilmIds() {
+        return delegate.getFilmIds();
+    }
+
+    @Override
+    public boolean existsById(int filmId) {
+        return delegate.existsById(filmId);
+    }
+
+    @Override
+    public void streamLikes(BiConsumer<Integer, Integer> consumer) {
+        delegate.streamLikes((filmId, userId) -> {
+            PendingLike like = pending(filmId, userId);
+            if (like == null || !like.changed) {
+                consumer.accept(filmId, userId);
+            }
+        });
+        pendingByFilm.forEach((filmId, pending) -> pending.forEach((userId, like) -> {
+            if (like.changed && like.added) {
+                consumer.accept(filmId, userId);
+            }
+        }));
+    }
+
+    @Override
+    public boolean addLike(int filmId, int userId) {
+        return enqueue(new Like(filmId, userId), true);
+    }
+
+    @Override
+    public boolean removeLike(int filmId, int userId) {
+        return enqueue(new Like(filmId, userId), false);
+    }
+
+    @Override
+    public Set<Like> findLikes(Collection<Like> likes) {
+        Set<Like> found = new HashSet<>(delegate.findLikes(likes));
+        for (Like like : likes) {
+            PendingLike pending = pending(like.getFilmId(), like.getUserId());
+            if (pending != null && pending.changed) {
+                if (pending.added) {
+                    found.add(like);
+                } else {
+                    found.remove(like);
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<Like> addLikes(List<Like> likes) {
+        return likes.stream()
+                .filter(like -> enqueue(like, true))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void removeLikes(List<Like> likes) {
+        likes.forEach(like -> enqueue(like, false));
+    }
+
+    // true when the like's visible state changed; without a pending state the stored one decides,
+    // and it is read again when a flush settled likes between reading it and applying the change
+    private boolean enqueue(Like like, boolean added) {
+        Boolean[] changed = {null};
+        while (changed[0] == null) {
+            long settled = settles.get();
+            Boolean stored = pending(like.getFilmId(), like.getUserId()) == null
+                    ? !delegate.findLikes(List.of(like)).isEmpty() : null;
+            pendingByFilm.compute(like.getFilmId(), (filmId, pending) -> {
+                Map<Integer, PendingLike> likes = pending == null ? new ConcurrentHashMap<>() : pending;
+                likes.compute(like.getUserId(), (userId, previous) -> {
+                    if (previous != null) {
+                        changed[0] = previous.added != added;
+                        return changed[0] ? new PendingLike(added, !previous.changed) : previous;
+                    }
+                    if (stored == null || settles.get() != settled) {
+                        return null;
+                    }
+                    changed[0] = stored != added;
+                    return changed[0] ? new PendingLike(added, true) : null;
+                });
+                return likes.isEmpty() ? null : likes;
+            });
+        }
+        if (!changed[0]) {
+            return false;
+        }
+
+        try {
+            queue.put(like);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while queueing like " + like, e);
+        }
+        return true;
+    }
+
+    private void run() {
+        List<Like> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Like first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null && !hasRetry()) {
+                    continue;
+                }
+                if (first != null) {
+                    batch.add(first);
+                    fill(batch);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("like write-behind flush error: {} likes will be retried.", retrySize(), e);
+                if (running) {
+                    LockSupport.parkNanos(flushIntervalNanos);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fill(List<Like> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            Like next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    // a failed batch stays in the retry set and is written again together with the next one,
+    // adds and removes go in one transaction, so a failure never leaves half of a batch written
+    private void flush(List<Like> batch) {
+        synchronized (flushLock) {
+            retry.addAll(batch);
+            if (retry.isEmpty()) {
+                return;
+            }
+            Map<Like, PendingLike> snapshot = new LinkedHashMap<>();
+            List<Like> added = new ArrayList<>();
+            List<Like> removed = new ArrayList<>();
+            for (Like like : retry) {
+                PendingLike pending = pending(like.getFilmId(), like.getUserId());
+                if (pending == null) {
+                    continue;
+                }
+                snapshot.put(like, pending);
+                if (pending.changed) {
+                    (pending.added ? added : removed).add(like);
+                }
+            }
+
+            delegate.updateLikes(added, removed);
+            snapshot.forEach(this::settle);
+            log.debug("like write-behind flushed: events {}, added {}, removed {}.",
+                    retry.size(), added.size(), removed.size());
+            retry.clear();
+        }
+    }
+
+    private boolean hasRetry() {
+        return retrySize() > 0;
+    }
+
+    private int retrySize() {
+        synchronized (flushLock) {
+            return retry.size();
+        }
+    }
+
+    // drops the flushed state, or rebases newer state on top of what was just written
+    private void settle(Like like, PendingLike flushed) {
+        pendingByFilm.computeIfPresent(like.getFilmId(), (filmId, pending) -> {
+            pending.computeIfPresent(like.getUserId(), (userId, current) -> {
+                settles.incrementAndGet();
+                if (current == flushed) {
+                    return null;
+                }
+                return flushed.changed ? new PendingLike(current.added, !current.changed) : current;
+            });
+            return pending.isEmpty() ? null : pending;
+        });
+    }
+
+    private Map<Integer, Integer> pendingDeltas() {
+        Map<Integer, Integer> deltas = new HashMap<>();
+        pendingByFilm.forEach((filmId, pending) -> pending.values().forEach(like -> {
+            if (like.changed) {
+                deltas.merge(filmId, like.added ? 1 : -1, Integer::sum);
+            }
+        }));
+        return deltas;
+    }
+
+    private PendingLike pending(int filmId, int userId) {
+        Map<Integer, PendingLike> pending = pendingByFilm.get(filmId);
+        return pending == null ? null : pending.get(userId);
+    }
+
+    private List<Film> withPending(List<Film> films) {
+        films.forEach(this::withPending);
+        return films;
+    }
+
+    private Film withPending(Film film) {
+        if (film == null) {
+            return null;
+        }
+        Map<Integer, PendingLike> pending = pendingByFilm.getOrDefault(film.getId(), Collections.emptyMap());
+        pending.forEach((userId, like) -> {
+            if (like.changed && like.added) {
+                film.getLikes().add(userId);
+            } else if (like.changed) {
+                film.getLikes().remove(userId);
+            }
+        });
+        return film;
+    }
+
+    private static final class PendingLike {
+        private final boolean added;
+        private final boolean changed;
+
+        private PendingLike(boolean added, boolean changed) {
+            this.added = added;
+            this.changed = changed;
+        }
+    }
+}
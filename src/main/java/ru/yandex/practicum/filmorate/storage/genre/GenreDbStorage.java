@@ -6,7 +6,6 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
 
 import java.util.List;
 
@@ -14,7 +13,7 @@ import java.util.List;
 public class GenreDbStorage implements GenreStorage {
 
     private final JdbcTemplate jdbcTemplate;
-    private final Logger log = LoggerFactory.getLogger(MpaDbStorage.class);
+    private final Logger log = LoggerFactory.getLogger(GenreDbStorage.class);
     private final GenreMapper genreMapper;
 
     public GenreDbStorage(JdbcTemplate jdbcTemplate, GenreMapper genreMapper) {
@@ -39,10 +38,10 @@ public class GenreDbStorage implements GenreStorage {
                     genreRows.getInt("id"),
                     genreRows.getString("name")
             );
-            log.info("Genre found: {} {}", genre.getId(), genre.getName());
+            log.debug("Genre found: {} {}", genre.getId(), genre.getName());
             return genre;
         } else {
-            log.info("Genre with id: {} not found.", id);
+            log.debug("Genre with id: {} not found.", id);
             return null;
         }
     }
@@ -0,0 +1,407 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// journal layout: [magic][generation] then records of [length][crc][type][payload]
+// records go to one of two segment files, a full segment is rotated to the other one under the lock,
+// and the snapshot is written outside of it; a segment is reused only after a snapshot newer than it is written
+@Slf4j
+public class Journal {
+
+    private static final int MAGIC = 0x46494c4d;
+    private static final int HEADER_SIZE = 12;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final Path journalPath;
+    private final Path snapshotPath;
+    private final int capacity;
+    private final long snapshotIntervalSeconds;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream output = new DataOutputStream(buffer);
+    private final Segment[] segments = new Segment[2];
+
+    private ScheduledExecutorService scheduler;
+    private SnapshotWriter snapshotWriter;
+    private Segment active;
+    private int position;
+    private boolean inactiveFree;
+    private boolean snapshotting;
+    private boolean snapshotScheduled;
+    private boolean dirty;
+    private boolean opened;
+
+    Journal(Path directory, String name, int capacity, long snapshotIntervalSeconds) {
+        this.journalPath = directory == null ? null : directory.resolve(name + ".journal");
+        this.snapshotPath = directory == null ? null : directory.resolve(name + ".snapshot");
+        this.capacity = capacity;
+        this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+    }
+
+    public static Journal disabled() {
+        return new Journal(null, null, 0, 0);
+    }
+
+    public boolean isEnabled() {
+        return journalPath != null;
+    }
+
+    public synchronized void open(SnapshotReader snapshotReader, RecordReader recordReader,
+                                  SnapshotWriter snapshotWriter) {
+        if (!isEnabled()) {
+            return;
+        }
+        this.snapshotWriter = snapshotWriter;
+        int replayed = 0;
+        try {
+            Files.createDirectories(journalPath.getParent());
+            long snapshotGeneration = readSnapshot(snapshotReader);
+
+            segments[0] = new Segment(journalPath, capacity);
+            segments[1] = new Segment(journalPath.resolveSibling(journalPath.getFileName() + ".1"), capacity);
+            // segments older than the snapshot are already part of it
+            Segment[] tail = Arrays.stream(segments)
+                    .filter(segment -> segment.isValid() && segment.generation() >= snapshotGeneration)
+                    .sorted(Comparator.comparingLong(Segment::generation))
+                    .toArray(Segment[]::new);
+            for (Segment segment : tail) {
+                active = segment;
+                replayed += replay(segment, recordReader);
+            }
+            if (tail.length == 0) {
+                active = segments[0];
+                reset(active, snapshotGeneration);
+            }
+            inactiveFree = tail.length < 2;
+            dirty = replayed > 0;
+            log.info("journal {} was restored, generation: {}, replayed records: {}",
+                    journalPath, active.generation(), replayed);
+        } catch (IOException e) {
+            throw new UncheckedIOException("can't open journal " + journalPath, e);
+        }
+        opened = true;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-" + journalPath.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::force, 1, 1, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::snapshotIfDirty,
+                snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // the change is applied under the journal lock right after its record is written, so records follow
+    // the order of applied changes and a record that can't be written leaves the change unapplied;
+    // without a journal there is nothing to order, so the change runs without the lock
+    public void append(byte type, RecordWriter recordWriter, Runnable change) {
+        if (!isEnabled()) {
+            change.run();
+            return;
+        }
+        synchronized (this) {
+            append(type, recordWriter);
+            change.run();
+        }
+    }
+
+    // records are ignored until the journal is opened, so replaying them does not write them again
+    private void append(byte type, RecordWriter recordWriter) {
+        if (!opened) {
+            return;
+        }
+        try {
+            buffer.reset();
+            output.writeByte(type);
+            recordWriter.write(output);
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int length = buffer.size();
+        if (HEADER_SIZE + RECORD_HEADER_SIZE + length > capacity) {
+            throw new IllegalStateException(String.format("journal record of %s bytes doesn't fit into %s",
+                    length, journalPath));
+        }
+        if (position + RECORD_HEADER_SIZE + length > capacity) {
+            rotateFull();
+        }
+
+        byte[] record = buffer.toByteArray();
+        MappedByteBuffer mapped = active.mapped;
+        mapped.position(position + RECORD_HEADER_SIZE);
+        mapped.put(record);
+        mapped.putInt(position + 4, crc(active.generation(), record));
+        mapped.putInt(position, length);
+        position += RECORD_HEADER_SIZE + length;
+        dirty = true;
+    }
+
+    // a snapshot taken while changes keep coming may already contain some records of the new segment,
+    // replaying them again is harmless because every record sets state rather than shifting it
+    public void snapshot() {
+        long snapshotGeneration;
+        Segment previous;
+        synchronized (this) {
+            if (!opened || !awaitSnapshot()) {
+                return;
+            }
+            snapshotting = true;
+            snapshotScheduled = false;
+            if (inactiveFree) {
+                rotate();
+            }
+            snapshotGeneration = active.generation();
+            previous = inactive();
+        }
+
+        boolean written = false;
+        try {
+            previous.mapped.force();
+            writeSnapshot(snapshotGeneration);
+            written = true;
+            log.debug("journal {} was compacted into snapshot, generation: {}", journalPath, snapshotGeneration);
+        } finally {
+            synchronized (this) {
+                inactiveFree = written;
+                dirty |= !written;
+                snapshotting = false;
+                notifyAll();
+            }
+        }
+    }
+
+    public void close() {
+        synchronized (this) {
+            if (!opened) {
+                return;
+            }
+            scheduler.shutdownNow();
+        }
+        snapshot();
+        synchronized (this) {
+            for (Segment segment : segments) {
+                try {
+                    segment.channel.close();
+                } catch (IOException e) {
+                    log.error("journal {} close error", segment.path, e);
+                }
+            }
+            opened = false;
+        }
+    }
+
+    // writers wait for a running snapshot to free the other segment, a failed snapshot fails them instead
+    private void rotateFull() {
+        if (!inactiveFree && !snapshotting && !snapshotScheduled) {
+            requestSnapshot();
+        }
+        while (!inactiveFree && (snapshotting || snapshotScheduled)) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for journal " + journalPath, e);
+            }
+        }
+        if (!inactiveFree) {
+            throw new IllegalStateException(String.format("journal %s is full and its snapshot failed",
+                    journalPath));
+        }
+        rotate();
+        requestSnapshot();
+    }
+
+    private void rotate() {
+        Segment next = inactive();
+        reset(next, active.generation() + 1);
+        active = next;
+        inactiveFree = false;
+    }
+
+    private void requestSnapshot() {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        snapshotScheduled = true;
+        scheduler.execute(this::snapshotQuietly);
+    }
+
+    private boolean awaitSnapshot() {
+        while (snapshotting) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return opened;
+    }
+
+    private Segment inactive() {
+        return segments[0] == active ? segments[1] : segments[0];
+    }
+
+    private void writeSnapshot(long snapshotGeneration) {
+        Path temporary = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             DataOutputStream snapshot = new DataOutputStream(new BufferedOutputStream(file))) {
+            snapshot.writeInt(MAGIC);
+            snapshot.writeLong(snapshotGeneration);
+            snapshotWriter.write(snapshot);
+            snapshot.flush();
+            file.getFD().sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException("can't write snapshot " + snapshotPath, e);
+        }
+
+        try {
+            Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("can't replace snapshot " + snapshotPath, e);
+        }
+    }
+
+    private long readSnapshot(SnapshotReader snapshotReader) throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return 0;
+        }
+        try (InputStream file = Files.newInputStream(snapshotPath);
+             DataInputStream snapshot = new DataInputStream(new BufferedInputStream(file))) {
+            if (snapshot.readInt() != MAGIC) {
+                throw new IOException("snapshot " + snapshotPath + " is corrupted");
+            }
+            long snapshotGeneration = snapshot.readLong();
+            snapshotReader.read(snapshot);
+            return snapshotGeneration;
+        }
+    }
+
+    private int replay(Segment segment, RecordReader recordReader) throws IOException {
+        int replayed = 0;
+        MappedByteBuffer mapped = segment.mapped;
+        position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= capacity) {
+            int length = mapped.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > capacity) {
+                break;
+            }
+            byte[] record = new byte[length];
+            mapped.position(position + RECORD_HEADER_SIZE);
+            mapped.get(record);
+            if (crc(segment.generation(), record) != mapped.getInt(position + 4)) {
+                break;
+            }
+
+            DataInput input = new DataInputStream(new ByteArrayInputStream(record, 1, length - 1));
+            recordReader.read(record[0], input);
+            position += RECORD_HEADER_SIZE + length;
+            replayed++;
+        }
+        return replayed;
+    }
+
+    private void reset(Segment segment, long nextGeneration) {
+        position = HEADER_SIZE;
+        segment.mapped.putInt(0, MAGIC);
+        segment.mapped.putLong(4, nextGeneration);
+        segment.mapped.putInt(HEADER_SIZE, 0);
+        segment.mapped.force();
+        dirty = false;
+    }
+
+    // generation is part of the checksum so records left over from older generations are never replayed
+    private static int crc(long generation, byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update((int) (generation >>> 32));
+        crc.update((int) generation);
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    private synchronized void force() {
+        if (opened) {
+            active.mapped.force();
+        }
+    }
+
+    private void snapshotIfDirty() {
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+        }
+        snapshotQuietly();
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.error("journal {} snapshot error", journalPath, e);
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer mapped;
+
+        private Segment(Path path, int capacity) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+
+        private boolean isValid() {
+            return mapped.getInt(0) == MAGIC;
+        }
+
+        private long generation() {
+            return mapped.getLong(4);
+        }
+    }
+
+    public interface RecordWriter {
+        void write(DataOutput output) throws IOException;
+    }
+
+    public interface RecordReader {
+        void read(byte type, DataInput input) throws IOException;
+    }
+
+    public interface SnapshotWriter {
+        void write(DataOutput output) throws IOException;
+    }
+
+    public interface SnapshotReader {
+        void read(DataInput input) throws IOException;
+    }
+}
@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class JournalCodec {
+
+    private JournalCodec() {
+    }
+
+    public static void writeString(DataOutput output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    public static String readString(DataInput input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    public static void writeDate(DataOutput output, LocalDate value) throws IOException {
+        output.writeLong(value == null ? Long.MIN_VALUE : value.toEpochDay());
+    }
+
+    public static LocalDate readDate(DataInput input) throws IOException {
+        long epochDay = input.readLong();
+        return epochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    public static void writeIds(DataOutput output, Collection<Integer> ids) throws IOException {
+        int[] values = ids.stream().mapToInt(Integer::intValue).toArray();
+        output.writeInt(values.length);
+        for (int id : values) {
+            output.writeInt(id);
+        }
+    }
+
+    public static List<Integer> readIds(DataInput input) throws IOException {
+        int size = input.readInt();
+        List<Integer> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(input.readInt());
+        }
+        return ids;
+    }
+}
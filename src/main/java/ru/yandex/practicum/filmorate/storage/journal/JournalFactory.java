@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@Component
+@Profile("in-memory")
+public class JournalFactory {
+
+    private final Path directory;
+    private final int capacity;
+    private final long snapshotIntervalSeconds;
+
+    public JournalFactory(@Value("${filmorate.journal.dir:}") String directory,
+                          @Value("${filmorate.journal.capacity-mb:64}") int capacityMb,
+                          @Value("${filmorate.journal.snapshot-interval-s:300}") long snapshotIntervalSeconds) {
+        this.directory = directory.isBlank() ? null : Paths.get(directory);
+        this.capacity = capacityMb << 20;
+        this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+    }
+
+    public static JournalFactory disabled() {
+        return new JournalFactory("", 0, 0);
+    }
+
+    public Journal open(String name) {
+        if (directory == null) {
+            return Journal.disabled();
+        }
+        return new Journal(directory, name, capacity, snapshotIntervalSeconds);
+    }
+}
@@ -37,10 +37,10 @@ public class MpaDbStorage implements MpaStorage {
                     mpaRows.getInt("id"),
                     mpaRows.getString("name")
             );
-            log.info("MPA found: {} {}", mpa.getId(), mpa.getName());
+            log.debug("MPA found: {} {}", mpa.getId(), mpa.getName());
             return mpa;
         } else {
-            log.info("MPA with id: {} not found.", id);
+            log.debug("MPA with id: {} not found.", id);
             return null;
         }
     }
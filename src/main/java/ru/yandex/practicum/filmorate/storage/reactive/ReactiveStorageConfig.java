@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.storage.reactive;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+// the connection factory stays private: as a bean it would make Boot run schema.sql through R2DBC instead of JDBC
+@Configuration
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "filmorate.reactive.enabled", havingValue = "true")
+public class ReactiveStorageConfig {
+
+    private static final String JDBC_H2_PREFIX = "jdbc:h2:";
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(@Value("${spring.datasource.url}") String jdbcUrl,
+                                                 @Value("${spring.datasource.username}") String username,
+                                                 @Value("${spring.datasource.password}") String password) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(r2dbcUrl(jdbcUrl)).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        return DatabaseClient.create(ConnectionFactories.get(options));
+    }
+
+    // derived from the JDBC url so that both stacks always read the same database
+    static String r2dbcUrl(String jdbcUrl) {
+        if (!jdbcUrl.startsWith(JDBC_H2_PREFIX)) {
+            throw new IllegalStateException(String.format("reactive endpoints support only H2 datasources, url: %s",
+                    jdbcUrl));
+        }
+        String database = jdbcUrl.substring(JDBC_H2_PREFIX.length());
+        if (database.startsWith("mem:")) {
+            return "r2dbc:h2:mem:///" + database.substring("mem:".length());
+        }
+        if (database.startsWith("tcp:") || database.startsWith("ssl:")) {
+            return "r2dbc:h2:" + database;
+        }
+        if (database.startsWith("file:")) {
+            database = database.substring("file:".length());
+        }
+        return "r2dbc:h2:file:///" + database;
+    }
+}
@@ -1,39 +1,105 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.journal.Journal;
+import ru.yandex.practicum.filmorate.storage.journal.JournalCodec;
+import ru.yandex.practicum.filmorate.storage.journal.JournalFactory;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Slf4j
 @Component
+@Profile("in-memory")
 public class InMemoryUserStorage implements UserStorage {
 
-    private final Map<Integer, User> users = new HashMap<>();
-    private int generatorId = 0;
+    private static final byte PUT_USER = 1;
+    private static final byte ADD_FRIEND = 2;
+    private static final byte REMOVE_FRIEND = 3;
+
+    private final Map<Integer, User> users = new ConcurrentHashMap<>();
+    private final Map<Integer, NavigableSet<Integer>> friends = new ConcurrentHashMap<>();
+    private final AtomicInteger generatorId = new AtomicInteger();
+    private final Journal journal;
+
+    public InMemoryUserStorage(JournalFactory journalFactory) {
+        this.journal = journalFactory.open("users");
+    }
+
+    @PostConstruct
+    public void restore() {
+        journal.open(this::readSnapshot, this::replay, this::writeSnapshot);
+        if (journal.isEnabled()) {
+            log.info("user storage was restored from journal, users: {}", users.size());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        journal.close();
+    }
 
     @Override
     public List<User> getUsers() {
-        return new ArrayList<>(users.values());
+        return getUsers(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<User> getUsers(int after, int limit) {
+        List<User> page = new ArrayList<>();
+        int lastId = generatorId.get();
+        for (int id = Math.max(after, 0) + 1; id <= lastId && page.size() < limit; id++) {
+            User user = users.get(id);
+            if (user != null) {
+                page.add(user);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void streamUsers(Consumer<User> consumer) {
+        int lastId = generatorId.get();
+        for (int id = 1; id <= lastId; id++) {
+            User user = users.get(id);
+            if (user != null) {
+                consumer.accept(user);
+            }
+        }
     }
 
     @Override
     public User create(User user) {
         user.setId(generateId());
-        users.put(user.getId(), user);
+        journal.append(PUT_USER, output -> writeUser(output, user), () -> users.put(user.getId(), user));
         log.info("new user was added {}", user);
 
         return user;
     }
 
+    @Override
+    public List<User> createAll(List<User> users) {
+        users.forEach(this::create);
+        return users;
+    }
+
     @Override
     public User update(User user) {
         if (users.containsKey(user.getId())) {
-            users.put(user.getId(), user);
-
+            journal.append(PUT_USER, output -> writeUser(output, user), () -> users.put(user.getId(), user));
             log.info("user with id {} was updated. user: {}", user.getId(), user);
             return user;
         } else {
@@ -44,78 +110,171 @@ public class InMemoryUserStorage implements UserStorage {
 
     @Override
     public Optional<User> getUserById(int userId) {
-        if (users.containsKey(userId)) {
-            return Optional.ofNullable(users.get(userId));
-        } else {
+        User user = users.get(userId);
+        if (user == null) {
             log.debug("get user by id error: user with id {} not exists.", userId);
             throw new UserNotFoundException(String.format("User with id: %s was not found!", userId));
         }
+        return Optional.of(user);
     }
 
     @Override
-    public List<User> getFriends(int userId) {
-        return getUsers()
-                .stream()
-                .filter(u -> u.getFriends().contains(userId))
-                .collect(Collectors.toList());
+    public List<User> getUsersByIds(Collection<Integer> userIds) {
+        return toUsers(userIds, Integer.MAX_VALUE);
     }
 
     @Override
-    public List<User> getCommonFriends(int userId, int otherId) {
-        ArrayList<User> commonFriends = new ArrayList<>();
+    public List<Integer> getUserIds() {
+        return new ArrayList<>(users.keySet());
+    }
 
-        Optional<User> user = getUserById(userId);
-        Set<Integer> friendsOfUser = new HashSet<>();
-        if (user.isPresent()) {
-            friendsOfUser = user.get().getFriends();
-        }
+    @Override
+    public boolean existsById(int userId) {
+        return users.containsKey(userId);
+    }
 
-        Optional<User> otherUser = getUserById(otherId);
-        Set<Integer> friendsOfOtherUser = new HashSet<>();
-        if (otherUser.isPresent()) {
-            friendsOfOtherUser = otherUser.get().getFriends();
+    @Override
+    public List<User> getFriends(int userId) {
+        return toUsers(friendIds(userId), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<User> getFriends(int userId, int after, int limit) {
+        return toUsers(friendIds(userId).tailSet(after, false), limit);
+    }
+
+    @Override
+    public List<User> getCommonFriends(int userId, int otherId) {
+        NavigableSet<Integer> friendsOfUser = friendIds(userId);
+        NavigableSet<Integer> friendsOfOtherUser = friendIds(otherId);
+        if (friendsOfUser.size() > friendsOfOtherUser.size()) {
+            NavigableSet<Integer> smaller = friendsOfOtherUser;
+            friendsOfOtherUser = friendsOfUser;
+            friendsOfUser = smaller;
         }
 
+        List<User> commonFriends = new ArrayList<>();
         for (Integer commonId : friendsOfUser) {
             if (friendsOfOtherUser.contains(commonId)) {
-                Optional<User> userById = getUserById(commonId);
-                userById.ifPresent(commonFriends::add);
+                User user = users.get(commonId);
+                if (user != null) {
+                    commonFriends.add(user);
+                }
             }
         }
         return commonFriends;
     }
 
     @Override
-    public void addFriend(int userId, int friendId) {
-        for (User user : getUsers()) {
-            if (userId == user.getId()) {
-                user.getFriends().add(friendId);
-            }
-        }
+    public void streamFriendships(BiConsumer<Integer, Integer> consumer) {
+        friends.forEach((userId, friendIds) -> friendIds.forEach(friendId -> consumer.accept(userId, friendId)));
+    }
 
-        for (User user : getUsers()) {
-            if (friendId == user.getId()) {
-                user.getFriends().add(userId);
-            }
+    @Override
+    public void addFriend(int userId, int friendId) {
+        if (!friendIds(userId).contains(friendId)) {
+            journal.append(ADD_FRIEND, output -> writeFriendship(output, userId, friendId),
+                    () -> friends.computeIfAbsent(userId, id -> new ConcurrentSkipListSet<>()).add(friendId));
         }
     }
 
     @Override
     public void removeFromFriends(int userId, int friendId) {
-        for (User user : getUsers()) {
-            if (userId == user.getId()) {
-                user.getFriends().remove(userId);
-            }
+        if (friendIds(userId).contains(friendId)) {
+            journal.append(REMOVE_FRIEND, output -> writeFriendship(output, userId, friendId),
+                    () -> friendIds(userId).remove(friendId));
         }
+    }
+
+    private NavigableSet<Integer> friendIds(int userId) {
+        return friends.getOrDefault(userId, Collections.emptyNavigableSet());
+    }
 
-        for (User user : getUsers()) {
-            if (friendId == user.getId()) {
-                user.getFriends().remove(friendId);
+    private List<User> toUsers(Collection<Integer> userIds, int limit) {
+        List<User> result = new ArrayList<>();
+        for (Integer userId : userIds) {
+            if (result.size() >= limit) {
+                break;
+            }
+            User user = users.get(userId);
+            if (user != null) {
+                result.add(user);
             }
         }
+        return result;
     }
 
     private int generateId() {
-        return ++generatorId;
+        return generatorId.incrementAndGet();
+    }
+
+    private void put(User user) {
+        users.put(user.getId(), user);
+        generatorId.accumulateAndGet(user.getId(), Math::max);
+    }
+
+    private void replay(byte type, DataInput input) throws IOException {
+        switch (type) {
+            case PUT_USER:
+                put(readUser(input));
+                break;
+            case ADD_FRIEND:
+                addFriend(input.readInt(), input.readInt());
+                break;
+            case REMOVE_FRIEND:
+                removeFromFriends(input.readInt(), input.readInt());
+                break;
+            default:
+                throw new IOException("unknown user journal record: " + type);
+        }
+    }
+
+    private void readSnapshot(DataInput input) throws IOException {
+        generatorId.set(input.readInt());
+        while (input.readBoolean()) {
+            put(readUser(input));
+        }
+        while (input.readBoolean()) {
+            int userId = input.readInt();
+            friends.put(userId, new ConcurrentSkipListSet<>(JournalCodec.readIds(input)));
+        }
+    }
+
+    private void writeSnapshot(DataOutput output) throws IOException {
+        output.writeInt(generatorId.get());
+        for (User user : users.values()) {
+            output.writeBoolean(true);
+            writeUser(output, user);
+        }
+        output.writeBoolean(false);
+        for (Map.Entry<Integer, NavigableSet<Integer>> entry : friends.entrySet()) {
+            output.writeBoolean(true);
+            output.writeInt(entry.getKey());
+            JournalCodec.writeIds(output, entry.getValue());
+        }
+        output.writeBoolean(false);
+    }
+
+    private static void writeFriendship(DataOutput output, int userId, int friendId) throws IOException {
+        output.writeInt(userId);
+        output.writeInt(friendId);
+    }
+
+    private static void writeUser(DataOutput output, User user) throws IOException {
+        output.writeInt(user.getId());
+        JournalCodec.writeString(output, user.getEmail());
+        JournalCodec.writeString(output, user.getLogin());
+        JournalCodec.writeString(output, user.getName());
+        JournalCodec.writeDate(output, user.getBirthday());
+    }
+
+    private static User readUser(DataInput input) throws IOException {
+        return User.builder()
+                .id(input.readInt())
+                .email(JournalCodec.readString(input))
+                .login(JournalCodec.readString(input))
+                .name(JournalCodec.readString(input))
+                .birthday(JournalCodec.readDate(input))
+                .build();
     }
 }
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+@Component
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "filmorate.reactive.enabled", havingValue = "true")
+public class R2dbcUserStorage {
+
+    private final DatabaseClient databaseClient;
+
+    public R2dbcUserStorage(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<User> getFriends(int userId) {
+        String sql = "SELECT u.id, u.email, u.login, u.name, u.birthday FROM friendship f " +
+                "JOIN users u ON u.id = f.friend_id " +
+                "WHERE f.user_id = :userId ORDER BY f.friend_id";
+
+        return databaseClient.sql(sql)
+                .bind("userId", userId)
+                .map((row, metadata) -> mapUser(row))
+                .all();
+    }
+
+    public Flux<User> getCommonFriends(int userId, int otherId) {
+        String sql = "SELECT u.id, u.email, u.login, u.name, u.birthday FROM friendship f " +
+                "JOIN friendship o ON o.friend_id = f.friend_id " +
+                "JOIN users u ON u.id = f.friend_id " +
+                "WHERE f.user_id = :userId AND o.user_id = :otherId ORDER BY u.id";
+
+        return databaseClient.sql(sql)
+                .bind("userId", userId)
+                .bind("otherId", otherId)
+                .map((row, metadata) -> mapUser(row))
+                .all();
+    }
+
+    private User mapUser(Row row) {
+        return User.builder()
+                .id(row.get("id", Integer.class))
+                .email(row.get("email", String.class))
+                .login(row.get("login", String.class))
+                .name(row.get("name", String.class))
+                .birthday(row.get("birthday", LocalDate.class))
+                .build();
+    }
+}
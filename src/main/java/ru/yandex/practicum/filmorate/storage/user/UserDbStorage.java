@@ -1,24 +1,46 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
-import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Component
-@Primary
+@Profile("!in-memory")
 public class UserDbStorage implements UserStorage {
 
+    private static final int IN_CLAUSE_SIZE = 500;
+    private static final int FETCH_SIZE = 500;
+    private static final int INSERT_ROWS = 100;
+
     private final JdbcTemplate jdbcTemplate;
     private final UserMapper userMapper;
+    private final TransactionTemplate transactionTemplate;
 
-    public UserDbStorage(JdbcTemplate jdbcTemplate, UserMapper userMapper) {
+    public UserDbStorage(JdbcTemplate jdbcTemplate, UserMapper userMapper,
+                         PlatformTransactionManager transactionManager) {
         this.jdbcTemplate = jdbcTemplate;
         this.userMapper = userMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -28,6 +50,24 @@ public class UserDbStorage implements UserStorage {
         return jdbcTemplate.query(sql, userMapper);
     }
 
+    @Override
+    public List<User> getUsers(int after, int limit) {
+        String sql = "SELECT u.id, u.email, u.login, u.name, u.birthday FROM users u " +
+                "WHERE u.id > ? ORDER BY u.id LIMIT ?";
+
+        return jdbcTemplate.query(sql, userMapper, after, limit);
+    }
+
+    // keyset pages, so an export never holds a connection while it waits on the client
+    @Override
+    public void streamUsers(Consumer<User> consumer) {
+        List<User> page = getUsers(0, FETCH_SIZE);
+        while (!page.isEmpty()) {
+            page.forEach(consumer);
+            page = page.size() < FETCH_SIZE ? List.of() : getUsers(page.get(page.size() - 1).getId(), FETCH_SIZE);
+        }
+    }
+
     @Override
     public User create(User user) {
 
@@ -40,6 +80,16 @@ public class UserDbStorage implements UserStorage {
         return user;
     }
 
+    @Override
+    public List<User> createAll(List<User> users) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < users.size(); from += INSERT_ROWS) {
+                insertUsers(users.subList(from, Math.min(from + INSERT_ROWS, users.size())));
+            }
+        });
+        return users;
+    }
+
     @Override
     public User update(User user) {
         String sql = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE id = ?";
@@ -65,6 +115,35 @@ public class UserDbStorage implements UserStorage {
         return Optional.ofNullable(jdbcTemplate.queryForObject(sql, userMapper, userId));
     }
 
+    @Override
+    public List<User> getUsersByIds(Collection<Integer> userIds) {
+        List<Integer> ids = new ArrayList<>(userIds);
+        Map<Integer, User> usersById = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_SIZE, ids.size()));
+            String sql = "SELECT u.id, u.email, u.login, u.name, u.birthday FROM users u WHERE u.id IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(sql, userMapper, chunk.toArray()).forEach(user -> usersById.put(user.getId(), user));
+        }
+
+        return ids.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Integer> getUserIds() {
+        return jdbcTemplate.queryForList("SELECT u.id FROM users u", Integer.class);
+    }
+
+    @Override
+    public boolean existsById(int userId) {
+        String sql = "SELECT COUNT(*) FROM users u WHERE u.id = ?";
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, userId);
+        return count != null && count > 0;
+    }
+
     @Override
     public List<User> getFriends(int userId) {
 
@@ -74,15 +153,40 @@ public class UserDbStorage implements UserStorage {
         return jdbcTemplate.query(sql, userMapper, userId);
     }
 
+    @Override
+    public List<User> getFriends(int userId, int after, int limit) {
+
+        String sql = "SELECT u.id, u.email, u.login, u.name, u.birthday FROM friendship f " +
+                "JOIN users u ON u.id = f.friend_id " +
+                "WHERE f.user_id = ? AND f.friend_id > ? ORDER BY f.friend_id LIMIT ?";
+
+        return jdbcTemplate.query(sql, userMapper, userId, after, limit);
+    }
+
     @Override
     public List<User> getCommonFriends(int userId, int otherId) {
-        String sql = "SELECT u.id, u.email, u.login, u.name, u.birthday FROM users u WHERE id IN " +
-                "(SELECT f.friend_id FROM friendship f JOIN users u ON u.id = f.user_id WHERE u.id = ?)" +
-                " AND id IN (SELECT f.friend_id FROM friendship f JOIN users u ON u.id = f.user_id WHERE u.id = ?)";
+        String sql = "SELECT u.id, u.email, u.login, u.name, u.birthday FROM friendship f " +
+                "JOIN friendship o ON o.friend_id = f.friend_id " +
+                "JOIN users u ON u.id = f.friend_id " +
+                "WHERE f.user_id = ? AND o.user_id = ? ORDER BY u.id";
 
         return jdbcTemplate.query(sql, userMapper, userId, otherId);
     }
 
+    @Override
+    public void streamFriendships(BiConsumer<Integer, Integer> consumer) {
+        String sql = "SELECT f.user_id, f.friend_id FROM friendship f ORDER BY f.user_id, f.friend_id";
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            consumer.accept(rs.getInt("user_id"), rs.getInt("friend_id"));
+        });
+    }
+
     @Override
     public void addFriend(int userId, int friendId) {
         final String sql = "INSERT INTO friendship (user_id, friend_id) VALUES (?, ?)";
@@ -96,4 +200,27 @@ public class UserDbStorage implements UserStorage {
 
         jdbcTemplate.update(sql, userId, friendId);
     }
+
+    private void insertUsers(List<User> users) {
+        String sql = "INSERT INTO users (email, login, name, birthday) VALUES " +
+                String.join(", ", Collections.nCopies(users.size(), "(?, ?, ?, ?)"));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, new String[]{"id"});
+            int index = 1;
+            for (User user : users) {
+                statement.setString(index++, user.getEmail());
+                statement.setString(index++, user.getLogin());
+                statement.setString(index++, user.getName());
+                statement.setObject(index++, user.getBirthday());
+            }
+            return statement;
+        }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(((Number) keys.get(i).values().iterator().next()).intValue());
+        }
+    }
 }
@@ -2,22 +2,41 @@ package ru.yandex.practicum.filmorate.storage.user;
 
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     List<User> getUsers();
 
+    List<User> getUsers(int after, int limit);
+
+    void streamUsers(Consumer<User> consumer);
+
     User create(User user);
 
+    List<User> createAll(List<User> users);
+
     User update(User user);
 
     Optional<User> getUserById(int userId);
 
+    List<User> getUsersByIds(Collection<Integer> userIds);
+
+    List<Integer> getUserIds();
+
+    boolean existsById(int userId);
+
     List<User> getFriends(int userId);
 
+    List<User> getFriends(int userId, int after, int limit);
+
     List<User> getCommonFriends(int userId, int otherId);
 
+    void streamFriendships(BiConsumer<Integer, Integer> consumer);
+
     void addFriend(int userId, int friendId);
 
     void removeFromFriends(int userId, int friendId);
@@ -21,9 +21,12 @@ CREATE TABLE IF NOT EXISTS films
     duration     INT,
     rate         INT,
     mpa_id       INT,
+    like_count   INT NOT NULL DEFAULT 0,
     FOREIGN KEY (mpa_id) REFERENCES mpas (id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS films_like_count_idx ON films (like_count DESC, id);
+
 CREATE TABLE IF NOT EXISTS users
 (
     id       INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ETagTest {
+
+    private final FilmService filmService;
+    private final UserService userService;
+    private final MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Тестирование условного запроса фильма и популярных фильмов")
+    public void testFilmETags() throws Exception {
+        int filmId = filmService.createFilm(Film.builder()
+                .name("film")
+                .description("description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(1, null))
+                .build()).getId();
+        int userId = userService.createUser(user()).getId();
+
+        String filmTag = eTag("/films/" + filmId);
+        String popularTag = eTag("/films/popular");
+        assertTrue(filmTag.startsWith("W/"));
+        mockMvc.perform(get("/films/" + filmId).header(HttpHeaders.IF_NONE_MATCH, filmTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/films/" + filmId).header(HttpHeaders.IF_NONE_MATCH, filmTag.substring(2)))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/films/popular").header(HttpHeaders.IF_NONE_MATCH, popularTag))
+                .andExpect(status().isNotModified());
+
+        filmService.addLike(filmId, userId);
+
+        mockMvc.perform(get("/films/" + filmId).header(HttpHeaders.IF_NONE_MATCH, filmTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/films/popular").header(HttpHeaders.IF_NONE_MATCH, popularTag))
+                .andExpect(status().isOk());
+        assertNotEquals(filmTag, eTag("/films/" + filmId));
+        mockMvc.perform(get("/films/" + (filmId + 1))).andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @DisplayName("Тестирование условного запроса списка друзей")
+    public void testFriendsETags() throws Exception {
+        int userId = userService.createUser(user()).getId();
+        int friendId = userService.createUser(user()).getId();
+
+        String friendsTag = eTag("/users/" + userId + "/friends");
+        userService.addToFriends(userId, friendId);
+
+        mockMvc.perform(get("/users/" + userId + "/friends").header(HttpHeaders.IF_NONE_MATCH, friendsTag))
+                .andExpect(status().isOk());
+
+        friendsTag = eTag("/users/" + userId + "/friends");
+        mockMvc.perform(get("/users/" + userId + "/friends").header(HttpHeaders.IF_NONE_MATCH, friendsTag))
+                .andExpect(status().isNotModified());
+
+        User friend = user();
+        friend.setId(friendId);
+        friend.setName("renamed");
+        userService.updateUser(friend);
+
+        mockMvc.perform(get("/users/" + userId + "/friends").header(HttpHeaders.IF_NONE_MATCH, friendsTag))
+                .andExpect(status().isOk());
+    }
+
+    private String eTag(String uri) throws Exception {
+        return mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private static User user() {
+        return User.builder()
+                .email("user@mail.com")
+                .login("login")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+}
@@ -0,0 +1,175 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class FilmJsonCacheTest {
+
+    private final FilmService filmService;
+    private final UserService userService;
+    private final FilmJsonCache filmJsonCache;
+    private final VersionRegistry versionRegistry;
+    private final ObjectMapper objectMapper;
+    private final MockMvc mockMvc;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Тестирование кэша сериализованных фильмов и его инвалидации")
+    public void testFilmJson() throws Exception {
+        int filmId = filmService.createFilm(film()).getId();
+        int otherFilmId = filmService.createFilm(film()).getId();
+        int userId = userService.createUser(User.builder()
+                .email("user@mail.com")
+                .login("login")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build()).getId();
+
+        assertEquals(body("/films/" + filmId), json(filmService.getFilmById(filmId).orElseThrow()));
+        assertEquals(filmJsonCache.size(), 1);
+
+        filmService.addLike(filmId, userId);
+
+        assertEquals(body("/films/" + filmId), json(filmService.getFilmById(filmId).orElseThrow()));
+        assertEquals(body("/films/popular"), json(filmService.getPopularFilms(10)));
+        assertEquals(body("/films"), json(filmService.getFilms()));
+        assertEquals(body("/films?after=" + filmId + "&limit=1"),
+                json(List.of(filmService.getFilmById(otherFilmId).orElseThrow())));
+        assertEquals(filmJsonCache.size(), 2);
+    }
+
+    @Test
+    @DisplayName("Тестирование кэширования фильма при изменении других фильмов")
+    public void testFilmJsonVersions() {
+        Film film = filmService.createFilm(film());
+        int otherFilmId = filmService.createFilm(film()).getId();
+
+        long generation = filmJsonCache.generation();
+        versionRegistry.filmChanged(otherFilmId);
+        filmJsonCache.toJson(film, generation);
+
+        assertEquals(filmJsonCache.size(), 1);
+
+        Film otherFilm = filmService.getFilmById(otherFilmId).orElseThrow();
+        filmJsonCache.toJson(otherFilm, generation);
+
+        assertEquals(filmJsonCache.size(), 1);
+    }
+
+    @Test
+    @DisplayName("Тестирование отключения выдачи лайков фильма по запросу")
+    public void testIncludeLikes() throws Exception {
+        int filmId = filmService.createFilm(film()).getId();
+        int userId = userService.createUser(User.builder()
+                .email("user@mail.com")
+                .login("login")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build()).getId();
+        filmService.addLike(filmId, userId);
+
+        JsonNode film = objectMapper.readTree(body("/films/" + filmId));
+        JsonNode popular = objectMapper.readTree(body("/films/popular"));
+        JsonNode filmWithoutLikes = objectMapper.readTree(body("/films/" + filmId + "?includeLikes=false"));
+        JsonNode popularWithoutLikes = objectMapper.readTree(body("/films/popular?includeLikes=false"));
+
+        assertEquals(film.get("likes").toString(), "[" + userId + "]");
+        assertEquals(popular.get(0).get("likes").toString(), "[" + userId + "]");
+        assertFalse(filmWithoutLikes.has("likes"));
+        assertFalse(popularWithoutLikes.get(0).has("likes"));
+        assertEquals(filmWithoutLikes.get("likesCount").asInt(), 1);
+        assertEquals(body("/films/" + filmId + "/likes/count"), "1");
+        assertEquals(filmJsonCache.size(), 1);
+    }
+
+    @Test
+    @DisplayName("Тестирование инвалидации кэша фильмов при перезагрузке справочников")
+    public void testReferenceDataReload() throws Exception {
+        int filmId = filmService.createFilm(film()).getId();
+        String tag = mockMvc.perform(get("/films/" + filmId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(filmJsonCache.size(), 1);
+
+        jdbcTemplate.update("UPDATE mpas SET name = ? WHERE id = ?", "Renamed", 1);
+        mockMvc.perform(post("/actuator/referencedata"))
+                .andExpect(status().isOk());
+
+        String renamed = mockMvc.perform(get("/films/" + filmId).header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(objectMapper.readTree(renamed).get("mpa").get("name").asText(), "Renamed");
+    }
+
+    @Test
+    @DisplayName("Тестирование заранее сжатых справочников")
+    public void testPrecompressedReferenceData() throws Exception {
+        byte[] plain = mockMvc.perform(get("/genres"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] compressed = mockMvc.perform(get("/genres").header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(input.readAllBytes(), plain);
+        }
+        mockMvc.perform(get("/mpa").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    private String body(String uri) throws Exception {
+        return mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private static Film film() {
+        return Film.builder()
+                .name("film")
+                .description("description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(1, null))
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.concurrency;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "filmorate.virtual-threads.enabled=true",
+        "filmorate.jdbc.gate.permits=2",
+        "filmorate.jdbc.gate.timeout-ms=200"
+})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class JdbcGateTest {
+
+    private final FilmService filmService;
+    private final FilmStorage filmStorage;
+    private final JdbcGatePostProcessor jdbcGatePostProcessor;
+    private final DataSource dataSource;
+
+    @Test
+    @DisplayName("Тестирование ограничения числа одновременно выданных соединений")
+    public void testConcurrencyLimit() throws Exception {
+        JdbcGate jdbcGate = jdbcGatePostProcessor.getJdbcGate();
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertEquals(jdbcGate.availablePermits(), 0);
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        first.close();
+        try (Connection third = dataSource.getConnection()) {
+            assertEquals(jdbcGate.availablePermits(), 0);
+        }
+        second.close();
+
+        assertEquals(jdbcGate.availablePermits(), 2);
+    }
+
+    @Test
+    @DisplayName("Тестирование выгрузки без удержания соединения на время обработки")
+    public void testStreamDoesNotHoldPermit() throws Exception {
+        filmService.createFilm(Film.builder()
+                .name("film")
+                .description("description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(1, null))
+                .build());
+
+        CountDownLatch streaming = new CountDownLatch(4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                calls.add(executor.submit(() -> filmStorage.streamFilms(film -> {
+                    streaming.countDown();
+                    try {
+                        streaming.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })));
+            }
+            assertTrue(streaming.await(10, TimeUnit.SECONDS));
+            assertEquals(filmStorage.getFilmIds().size(), 1);
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(jdbcGatePostProcessor.getJdbcGate().availablePermits(), 2);
+    }
+}
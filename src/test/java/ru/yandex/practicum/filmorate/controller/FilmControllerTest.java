@@ -11,10 +11,20 @@ import org.springframework.test.annotation.DirtiesContext;
 import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.LikeResult;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.MultiGetResult;
+import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -26,6 +36,8 @@ class FilmControllerTest {
     private Film film;
     @Autowired
     private FilmController controller;
+    @Autowired
+    private UserController userController;
 
     @BeforeEach
     public void init() {
@@ -126,4 +138,151 @@ class FilmControllerTest {
 
         assertEquals(String.format("Film with id: %s was not found!", film.getId()), ex.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Тестирование списка популярных фильмов")
+    void getPopularFilms() {
+        int firstFilmId = controller.createFilm(film).getId();
+        film.setName("second film");
+        int secondFilmId = controller.createFilm(film).getId();
+        film.setName("third film");
+        int thirdFilmId = controller.createFilm(film).getId();
+
+        User user = User.builder()
+                .email("user@mail.com")
+                .login("login")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build();
+        int firstUserId = userController.createUser(user).getId();
+        int secondUserId = userController.createUser(user).getId();
+
+        controller.addLike(secondFilmId, firstUserId);
+        controller.addLike(secondFilmId, secondUserId);
+        controller.addLike(thirdFilmId, firstUserId);
+
+        assertEquals(List.of(secondFilmId, thirdFilmId, firstFilmId), popularIds(10));
+        assertEquals(List.of(secondFilmId), popularIds(1));
+
+        controller.removeLike(secondFilmId, firstUserId);
+        controller.removeLike(secondFilmId, secondUserId);
+
+        assertEquals(List.of(thirdFilmId, firstFilmId, secondFilmId), popularIds(10));
+        assertThrows(ValidationException.class, () -> popularIds(Integer.MAX_VALUE, 1, null, null));
+    }
+
+    @Test
+    @DisplayName("Тестирование популярных фильмов по жанру, рейтингу и году")
+    void getPopularFilmsByFacets() {
+        film.setGenres(Set.of(new Genre(1, null)));
+        int firstFilmId = controller.createFilm(film).getId();
+        film.setGenres(Set.of(new Genre(1, null), new Genre(2, null)));
+        film.setMpa(new Mpa(1, null));
+        film.setReleaseDate(LocalDate.of(2005, 1, 1));
+        int secondFilmId = controller.createFilm(film).getId();
+        film.setGenres(Set.of(new Genre(2, null)));
+        film.setMpa(new Mpa(4, null));
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        int thirdFilmId = controller.createFilm(film).getId();
+
+        int userId = userController.createUser(User.builder()
+                .email("user@mail.com")
+                .login("login")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build()).getId();
+        controller.addLike(thirdFilmId, userId);
+
+        assertEquals(List.of(firstFilmId, secondFilmId), popularIds(10, 1, null, null));
+        assertEquals(List.of(thirdFilmId, secondFilmId), popularIds(10, 2, null, null));
+        assertEquals(List.of(thirdFilmId, firstFilmId), popularIds(10, null, 4, 2000));
+        assertEquals(List.of(thirdFilmId), popularIds(10, 2, 4, 2000));
+        assertEquals(List.of(), popularIds(10, 1, 1, 2000));
+        assertEquals(List.of(), popularIds(10, 6, null, null));
+
+        film.setId(firstFilmId);
+        film.setGenres(Set.of(new Genre(2, null)));
+        controller.updateFilm(film);
+
+        assertEquals(List.of(secondFilmId), popularIds(10, 1, null, null));
+        assertEquals(List.of(thirdFilmId, firstFilmId), popularIds(2, 2, null, null));
+    }
+
+    @Test
+    @DisplayName("Тестирование пакетного добавления лайков")
+    void addLikesBatch() {
+        int filmId = controller.createFilm(film).getId();
+        int userId = userController.createUser(User.builder()
+                .email("user@mail.com")
+                .login("login")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build()).getId();
+
+        List<LikeResult> results = controller.addLikes(List.of(
+                new Like(filmId, userId),
+                new Like(filmId, userId),
+                new Like(filmId + 1, userId),
+                new Like(filmId, userId + 1)));
+
+        assertEquals(List.of(LikeResult.Status.ADDED, LikeResult.Status.DUPLICATE,
+                        LikeResult.Status.FILM_NOT_FOUND, LikeResult.Status.USER_NOT_FOUND),
+                results.stream().map(LikeResult::getStatus).collect(Collectors.toList()));
+        assertEquals(1, controller.getPopularFilms(1, null, null, null).get(0).getLikes().size());
+
+        results = controller.addLikes(List.of(new Like(filmId, userId)));
+
+        assertEquals(LikeResult.Status.DUPLICATE, results.get(0).getStatus());
+        assertThrows(ValidationException.class, () -> controller.addLikes(null));
+        assertThrows(ValidationException.class,
+                () -> controller.addLikes(Arrays.asList(new Like(filmId, userId), null)));
+    }
+
+    @Test
+    @DisplayName("Тестирование получения лайков и их количества")
+    void getLikes() {
+        int filmId = controller.createFilm(film).getId();
+        User user = User.builder()
+                .email("user@mail.com")
+                .login("login")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build();
+        int firstUserId = userController.createUser(user).getId();
+        int secondUserId = userController.createUser(user).getId();
+
+        controller.addLike(filmId, secondUserId);
+        controller.addLike(filmId, firstUserId);
+
+        assertArrayEquals(new int[]{firstUserId, secondUserId}, controller.getLikes(filmId));
+        assertEquals(2, controller.getLikesCount(filmId));
+        assertEquals(2, controller.getFilm(filmId).orElseThrow().getLikesCount());
+
+        controller.removeLike(filmId, firstUserId);
+
+        assertArrayEquals(new int[]{secondUserId}, controller.getLikes(filmId));
+        assertEquals(1, controller.getLikesCount(filmId));
+    }
+
+    @Test
+    @DisplayName("Тестирование получения фильмов по списку id")
+    void getFilmsByIds() {
+        int firstId = controller.createFilm(film).getId();
+        int secondId = controller.createFilm(film).getId();
+
+        MultiGetResult<Film> result = controller.getFilmsByIds(List.of(secondId, 100, firstId, secondId));
+
+        assertEquals(List.of(secondId, firstId), result.getFound().stream()
+                .map(Film::getId)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(100), result.getMissing());
+        assertThrows(ValidationException.class, () -> controller.getFilmsByIds(List.of()));
+        assertThrows(ValidationException.class, () -> controller.getFilmsByIds(Arrays.asList(firstId, null)));
+    }
+
+    private List<Integer> popularIds(int count) {
+        return popularIds(count, null, null, null);
+    }
+
+    private List<Integer> popularIds(int count, Integer genreId, Integer mpaId, Integer year) {
+        return controller.getPopularFilms(count, genreId, mpaId, year).stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportChunkResult;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ImportControllerTest {
+
+    private final FilmService filmService;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Тестирование импорта фильмов в формате NDJSON")
+    public void importFilmsNdjson() throws Exception {
+        int userId = userService.createUser(User.builder()
+                .email("user@mail.com")
+                .login("login")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build()).getId();
+        String body = String.join("\n",
+                film("liked film", 1, "[1, 2]", "[" + userId + "]"),
+                film("", 1, "[]", "[]"),
+                "{not json",
+                "",
+                film("unknown mpa", 99, "[]", "[]"),
+                film("other film", 2, "[]", "[]"),
+                "null",
+                film("null genre", 1, "[null]", "[]"),
+                film("null like", 1, "[]", "[null]"));
+
+        List<ImportChunkResult> results = importBody("/films:import", MediaType.APPLICATION_NDJSON_VALUE, body);
+
+        assertEquals(results.size(), 1);
+        ImportChunkResult chunk = results.get(0);
+        assertEquals(chunk.getFirstLine(), 1);
+        assertEquals(chunk.getLastLine(), 9);
+        assertEquals(chunk.getImported(), 2);
+        assertEquals(chunk.getRejected(), 6);
+        assertNull(chunk.getError());
+        assertEquals(errorLines(chunk), List.of(2, 3, 5, 7, 8, 9));
+        assertEquals(chunk.getErrors().get(2).getMessage(), "Mpa with id: 99 was not found!");
+
+        List<Film> popular = filmService.getPopularFilms(10);
+        assertEquals(popular.size(), 2);
+        assertEquals(popular.get(0).getName(), "liked film");
+        assertEquals(popular.get(0).getLikes(), Set.of(userId));
+        assertEquals(popular.get(0).getGenres().size(), 2);
+        assertEquals(filmService.getFilmsByIds(List.of(1, 2)).getMissing(), List.of());
+        assertEquals(filmService.searchFilms("other", 10).get(0).getName(), "other film");
+    }
+
+    @Test
+    @DisplayName("Тестирование импорта пользователей и фильмов в формате CSV")
+    public void importCsv() throws Exception {
+        String users = "email,login,name,birthday\n" +
+                "first@mail.com,first,\"Doe, John\",2000-01-01\n" +
+                "mail.com,second,,2000-01-01\n" +
+                "third@mail.com,third,,not a date\n" +
+                "fourth@mail.com,fourth,,2001-02-03\n";
+
+        List<ImportChunkResult> results = importBody("/users:import", "text/csv", users);
+
+        assertEquals(results.get(0).getImported(), 2);
+        assertEquals(errorLines(results.get(0)), List.of(3, 4));
+        List<User> imported = userService.getUsersByIds(List.of(1, 2)).getFound();
+        assertEquals(imported.stream().map(User::getName).collect(Collectors.toList()), List.of("Doe, John", "fourth"));
+
+        String films = "name,description,releaseDate,duration,mpa,genres\n" +
+                "first,\"a \"\"quoted\"\" description\",2000-01-01,100,1,1;6\n" +
+                "second,description,2000-01-01,100,1,42\n";
+
+        results = importBody("/films:import", "text/csv", films);
+
+        assertEquals(results.get(0).getImported(), 1);
+        assertEquals(errorLines(results.get(0)), List.of(3));
+        Film film = filmService.getFilmById(1).orElseThrow();
+        assertEquals(film.getDescription(), "a \"quoted\" description");
+        assertEquals(film.getGenres().size(), 2);
+
+        mockMvc.perform(post("/films:import").contentType("text/csv").content("name,description\nfilm,film\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<ImportChunkResult> importBody(String path, String contentType, String body) throws Exception {
+        String response = mockMvc.perform(post(path).contentType(contentType).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, new TypeReference<>() {
+        });
+    }
+
+    private static List<Integer> errorLines(ImportChunkResult chunk) {
+        return chunk.getErrors().stream().map(ImportChunkResult.RecordError::getLine).collect(Collectors.toList());
+    }
+
+    private static String film(String name, int mpaId, String genreIds, String likes) {
+        String genres = genreIds.equals("[]") ? "[]" : genreIds.replaceAll("(\\d+)", "{\"id\": $1}");
+        return String.format("{\"name\": \"%s\", \"description\": \"description\", \"releaseDate\": \"2000-01-01\", " +
+                "\"duration\": 100, \"mpa\": {\"id\": %s}, \"genres\": %s, \"likes\": %s}", name, mpaId, genres, likes);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class PaginationTest {
+
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Тестирование запроса по списку id вместе с размером страницы")
+    public void testIdsWithLimit() throws Exception {
+        int firstUserId = createUser("first");
+        int secondUserId = createUser("second");
+
+        String body = mockMvc.perform(get("/users?ids=" + firstUserId + "," + secondUserId + "&limit=1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode users = objectMapper.readTree(body);
+
+        assertEquals(users.size(), 1);
+        assertEquals(users.get(0).get("id").asInt(), firstUserId);
+        mockMvc.perform(get("/films?ids=1,2&limit=5"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Тестирование курсора без размера страницы")
+    public void testAfterWithoutLimit() throws Exception {
+        int userId = createUser("first");
+
+        mockMvc.perform(get("/films?after=1")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users?after=1")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users/" + userId + "/friends?after=1")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users?ids=" + userId + "&after=1")).andExpect(status().isOk());
+    }
+
+    private int createUser(String login) {
+        return userService.createUser(User.builder()
+                .email(login + "@mail.com")
+                .login(login)
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build()).getId();
+    }
+}
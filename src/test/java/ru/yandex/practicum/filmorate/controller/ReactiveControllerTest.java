@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "filmorate.reactive.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ReactiveControllerTest {
+
+    private final ReactiveFilmController reactiveFilmController;
+    private final ReactiveUserController reactiveUserController;
+    private final FilmService filmService;
+    private final UserService userService;
+    private final MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Тестирование реактивного получения популярных фильмов")
+    public void getPopularFilms() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            filmService.createFilm(Film.builder()
+                    .name("film " + i)
+                    .description("description")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(100)
+                    .mpa(new Mpa(1, null))
+                    .genres(Set.of(new Genre(1, null), new Genre(2, null)))
+                    .build());
+        }
+        int userId = userService.createUser(user()).getId();
+        filmService.addLike(42, userId);
+
+        List<Film> films = reactiveFilmController.getPopularFilms(100).collectList().block();
+
+        assertEquals(films, filmService.getPopularFilms(100));
+        assertEquals(films.get(0).getId(), 42);
+        assertEquals(reactiveFilmController.getFilm(42).block(), filmService.getFilmById(42).orElseThrow());
+
+        MvcResult result = mockMvc.perform(get("/reactive/films/popular?count=3").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(body.lines().count(), 3L);
+    }
+
+    @Test
+    @DisplayName("Тестирование реактивного получения друзей и общих друзей")
+    public void getCommonFriends() {
+        int userId = userService.createUser(user()).getId();
+        int otherId = userService.createUser(user()).getId();
+        int commonId = userService.createUser(user()).getId();
+        int friendId = userService.createUser(user()).getId();
+        userService.addToFriends(userId, commonId);
+        userService.addToFriends(userId, friendId);
+        userService.addToFriends(otherId, commonId);
+
+        assertEquals(ids(reactiveUserController.getFriends(userId).collectList().block()),
+                List.of(commonId, friendId));
+        assertEquals(ids(reactiveUserController.getCommonFriends(userId, otherId).collectList().block()),
+                List.of(commonId));
+        assertThrows(UserNotFoundException.class, () -> reactiveUserController.getCommonFriends(userId, 100));
+    }
+
+    private static List<Integer> ids(List<User> users) {
+        return users.stream().map(User::getId).collect(Collectors.toList());
+    }
+
+    private static User user() {
+        return User.builder()
+                .email("user@mail.com")
+                .login("login")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+}
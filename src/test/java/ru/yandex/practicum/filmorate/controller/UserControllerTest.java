@@ -10,9 +10,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.model.MultiGetResult;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -130,4 +134,43 @@ class UserControllerTest {
 
         assertEquals(String.format("User with id: %s was not found!", user.getId()), ex.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Тестирование друзей и общих друзей")
+    public void getCommonFriends() {
+        int userId = controller.createUser(user).getId();
+        int otherId = controller.createUser(user).getId();
+        int commonId = controller.createUser(user).getId();
+
+        controller.addToFriends(userId, commonId);
+        controller.addToFriends(userId, otherId);
+        controller.addToFriends(otherId, commonId);
+
+        assertThrows(ValidationException.class, () -> controller.addToFriends(userId, commonId));
+        assertEquals(List.of(otherId, commonId), ids(controller.getFriends(userId)));
+        assertEquals(List.of(commonId), ids(controller.getCommonFriends(userId, otherId)));
+
+        controller.deleteFromFriends(userId, commonId);
+
+        assertEquals(List.of(otherId), ids(controller.getFriends(userId)));
+        assertEquals(List.of(), ids(controller.getCommonFriends(userId, otherId)));
+    }
+
+    @Test
+    @DisplayName("Тестирование получения пользователей по списку id")
+    public void getUsersByIds() {
+        int firstId = controller.createUser(user).getId();
+        int secondId = controller.createUser(user).getId();
+
+        MultiGetResult<User> result = controller.getUsersByIds(List.of(-1, secondId, firstId));
+
+        assertEquals(List.of(secondId, firstId), ids(result.getFound()));
+        assertEquals(List.of(-1), result.getMissing());
+        assertEquals(List.of(), controller.getUsersByIds(List.of(-1, -2)).getFound());
+        assertThrows(ValidationException.class, () -> controller.getUsersByIds(Arrays.asList(firstId, null)));
+    }
+
+    private List<Integer> ids(List<User> users) {
+        return users.stream().map(User::getId).collect(Collectors.toList());
+    }
+}
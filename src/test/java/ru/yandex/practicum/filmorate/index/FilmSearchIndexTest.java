@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.journal.JournalFactory;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class FilmSearchIndexTest {
+
+    private FilmStorage filmStorage;
+    private FilmSearchIndex searchIndex;
+
+    @BeforeEach
+    public void init() {
+        filmStorage = new InMemoryFilmStorage(null, JournalFactory.disabled());
+        filmStorage.create(film("Ёлки", "Новогодняя комедия о чудесах"));
+        filmStorage.create(film("Комедии и драмы", "Сборник коротких историй"));
+        filmStorage.create(film("Running Man", "A man runs for his life in a deadly game"));
+        filmStorage.create(film("The Games", "Stories about games and players"));
+        searchIndex = new FilmSearchIndex(filmStorage);
+        searchIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("Тестирование поиска с нормализацией русских и английских слов")
+    public void testSearch() {
+        assertArrayEquals(new int[]{1}, searchIndex.search("елки", 10));
+        assertArrayEquals(new int[]{2, 1}, searchIndex.search("КОМЕДИЯ", 10));
+        assertArrayEquals(new int[]{4, 3}, searchIndex.search("game", 10));
+        assertArrayEquals(new int[]{3}, searchIndex.search("man game", 10));
+        assertArrayEquals(new int[0], searchIndex.search("man драма", 10));
+        assertArrayEquals(new int[0], searchIndex.search("?!", 10));
+    }
+
+    @Test
+    @DisplayName("Тестирование обновления индекса и учёта лайков в ранжировании")
+    public void testUpdateAndLikes() {
+        for (int userId = 1; userId <= 30; userId++) {
+            filmStorage.addLike(3, userId);
+            searchIndex.likeAdded(3);
+        }
+
+        assertArrayEquals(new int[]{3, 4}, searchIndex.search("game", 10));
+        assertArrayEquals(new int[]{3}, searchIndex.search("game", 1));
+
+        Film updated = film("Running Man", "A man runs for his life");
+        updated.setId(3);
+        searchIndex.put(filmStorage.update(updated));
+
+        assertArrayEquals(new int[]{4}, searchIndex.search("game", 10));
+        assertArrayEquals(new int[]{3}, searchIndex.search("runs", 10));
+    }
+
+    @Test
+    @DisplayName("Тестирование пакетного добавления фильмов в индекс")
+    public void testPutAll() {
+        Film first = filmStorage.create(film("Game Night", "Friends play games"));
+        Film second = filmStorage.create(film("Games People Play", "A documentary"));
+        Film updated = film("Running Man", "A man runs for his life");
+        updated.setId(3);
+
+        searchIndex.putAll(List.of(first, second, filmStorage.update(updated)));
+
+        assertArrayEquals(new int[]{4, 5, 6}, IntStream.of(searchIndex.search("game", 10)).sorted().toArray());
+        assertArrayEquals(new int[]{5, 6}, IntStream.of(searchIndex.search("play", 10)).sorted().toArray());
+        assertArrayEquals(new int[]{3}, searchIndex.search("runs", 10));
+    }
+
+    private static Film film(String name, String description) {
+        return Film.builder()
+                .name(name)
+                .description(description)
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .build();
+    }
+}
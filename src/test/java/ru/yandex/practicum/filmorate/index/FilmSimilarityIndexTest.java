@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.journal.JournalFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FilmSimilarityIndexTest {
+
+    private FilmStorage filmStorage;
+    private FilmSimilarityIndex similarityIndex;
+
+    @BeforeEach
+    public void init() {
+        filmStorage = new InMemoryFilmStorage(null, JournalFactory.disabled());
+        IntStream.rangeClosed(1, 4).forEach(i -> filmStorage.create(Film.builder()
+                .name("film " + i)
+                .description("description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .build()));
+        similarityIndex = new FilmSimilarityIndex(filmStorage, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Тестирование построения соседей фильмов")
+    public void testRebuild() {
+        filmStorage.addLike(1, 1);
+        filmStorage.addLike(2, 1);
+        filmStorage.addLike(1, 2);
+        filmStorage.addLike(2, 2);
+        filmStorage.addLike(3, 2);
+        filmStorage.addLike(3, 3);
+        similarityIndex.rebuild();
+
+        assertArrayEquals(new int[]{2, 3}, similarityIndex.neighbours(1));
+        assertArrayEquals(new int[]{1, 2}, similarityIndex.neighbours(3));
+        assertArrayEquals(new int[]{}, similarityIndex.neighbours(4));
+        assertArrayEquals(new int[]{3}, similarityIndex.recommend(1, 10));
+        assertArrayEquals(new int[]{1, 2}, similarityIndex.recommend(3, 10));
+        assertArrayEquals(new int[]{1}, similarityIndex.recommend(3, 1));
+    }
+
+    @Test
+    @DisplayName("Тестирование инкрементального обновления соседей")
+    public void testIncrementalUpdate() {
+        similarityIndex.rebuild();
+
+        similarityIndex.likeAdded(1, 1);
+        similarityIndex.likeAdded(4, 1);
+        similarityIndex.likeAdded(1, 2);
+
+        assertArrayEquals(new int[]{4}, similarityIndex.neighbours(1));
+        assertArrayEquals(new int[]{1}, similarityIndex.neighbours(4));
+        assertArrayEquals(new int[]{4}, similarityIndex.recommend(2, 10));
+
+        similarityIndex.likeRemoved(4, 1);
+
+        assertArrayEquals(new int[]{}, similarityIndex.neighbours(1));
+        assertArrayEquals(new int[]{}, similarityIndex.recommend(2, 10));
+
+        similarityIndex.putLikes(3, List.of(1, 2));
+
+        assertArrayEquals(new int[]{3}, similarityIndex.neighbours(1));
+        assertArrayEquals(new int[]{}, similarityIndex.recommend(2, 10));
+    }
+
+    @Test
+    @DisplayName("Тестирование отложенного пересчёта соседей после удаления лайка")
+    public void testDeferredRecompute() {
+        List<Runnable> tasks = new ArrayList<>();
+        similarityIndex = new FilmSimilarityIndex(filmStorage, tasks::add);
+        filmStorage.addLike(1, 1);
+        filmStorage.addLike(2, 1);
+        filmStorage.addLike(3, 1);
+        similarityIndex.rebuild();
+
+        similarityIndex.likeRemoved(2, 1);
+        similarityIndex.likeRemoved(3, 1);
+
+        assertArrayEquals(new int[]{2, 3}, similarityIndex.neighbours(1));
+        assertEquals(tasks.size(), 1);
+
+        tasks.remove(0).run();
+
+        assertArrayEquals(new int[]{}, similarityIndex.neighbours(1));
+        assertArrayEquals(new int[]{}, similarityIndex.neighbours(2));
+
+        similarityIndex.putLikes(2, List.of(1));
+
+        assertArrayEquals(new int[]{2}, similarityIndex.neighbours(1));
+        assertEquals(tasks.size(), 1);
+    }
+}
@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.journal.JournalFactory;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FriendshipIndexTest {
+
+    private InMemoryUserStorage userStorage;
+    private FriendshipIndex friendshipIndex;
+
+    @BeforeEach
+    public void init() {
+        userStorage = new InMemoryUserStorage(JournalFactory.disabled());
+        friendshipIndex = new FriendshipIndex(userStorage);
+    }
+
+    @Test
+    @DisplayName("Тестирование загрузки и изменения индекса друзей")
+    public void testRebuildAddRemove() {
+        userStorage.addFriend(1, 3);
+        userStorage.addFriend(1, 2);
+        friendshipIndex.rebuild();
+
+        assertArrayEquals(new int[]{2, 3}, friendshipIndex.friends(1));
+
+        friendshipIndex.add(1, 5);
+        friendshipIndex.add(1, 4);
+        friendshipIndex.remove(1, 2);
+
+        assertTrue(friendshipIndex.contains(1, 4));
+        assertFalse(friendshipIndex.contains(1, 2));
+        assertFalse(friendshipIndex.contains(4, 1));
+        assertArrayEquals(new int[]{3, 4, 5}, friendshipIndex.friends(1));
+        assertArrayEquals(new int[]{4, 5}, friendshipIndex.friends(1, 3, 10));
+        assertArrayEquals(new int[]{4}, friendshipIndex.friends(1, 3, 1));
+        assertArrayEquals(new int[]{}, friendshipIndex.friends(2));
+    }
+
+    @Test
+    @DisplayName("Тестирование пересечения списков друзей разного размера")
+    public void testCommon() {
+        IntStream.rangeClosed(1, 5000).forEach(friendId -> friendshipIndex.add(1, friendId));
+        IntStream.rangeClosed(1, 3000).forEach(friendId -> friendshipIndex.add(2, friendId * 2));
+        IntStream.of(7, 100, 4999, 6000).forEach(friendId -> friendshipIndex.add(3, friendId));
+        IntStream.of(100, 200, 6000).forEach(friendId -> friendshipIndex.add(4, friendId));
+
+        assertArrayEquals(IntStream.rangeClosed(1, 2500).map(i -> i * 2).toArray(), friendshipIndex.common(1, 2));
+        assertArrayEquals(new int[]{7, 100, 4999}, friendshipIndex.common(3, 1));
+        assertArrayEquals(new int[]{100, 200, 6000}, friendshipIndex.common(4, 2));
+        assertArrayEquals(new int[]{100, 6000}, friendshipIndex.common(3, 4));
+        assertArrayEquals(new int[]{}, friendshipIndex.common(3, 5));
+    }
+
+    @Test
+    @DisplayName("Тестирование галопирующего пересечения")
+    public void testGallop() {
+        IntStream.rangeClosed(1, 900).forEach(friendId -> friendshipIndex.add(1, friendId * 3));
+        IntStream.of(1, 3, 450, 2700, 2701).forEach(friendId -> friendshipIndex.add(2, friendId));
+
+        assertArrayEquals(new int[]{3, 450, 2700}, friendshipIndex.common(2, 1));
+    }
+
+    @Test
+    @DisplayName("Тестирование рекомендаций друзей по общим друзьям")
+    public void testSuggestions() {
+        friendshipIndex.add(1, 2);
+        friendshipIndex.add(1, 3);
+        friendshipIndex.add(1, 4);
+        IntStream.of(1, 3, 5, 6).forEach(friendId -> friendshipIndex.add(2, friendId));
+        IntStream.of(5, 6, 7).forEach(friendId -> friendshipIndex.add(3, friendId));
+        IntStream.of(6, 8).forEach(friendId -> friendshipIndex.add(4, friendId));
+
+        assertArrayEquals(new int[]{6, 5, 7, 8}, friendshipIndex.suggestions(1, 10));
+        assertArrayEquals(new int[]{6, 5}, friendshipIndex.suggestions(1, 2));
+        assertArrayEquals(new int[]{}, friendshipIndex.suggestions(9, 10));
+    }
+}
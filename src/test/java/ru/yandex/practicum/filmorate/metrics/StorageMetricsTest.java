@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class StorageMetricsTest {
+
+    private final FilmStorage filmStorage;
+    private final MeterRegistry meterRegistry;
+    private final MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Тестирование метрик вызовов хранилища")
+    public void testStorageCalls() {
+        filmStorage.getFilms();
+        filmStorage.getFilms();
+        filmStorage.getFilmById(100);
+        assertThrows(DataAccessException.class, () -> filmStorage.addLike(100, 100));
+
+        assertEquals(meterRegistry.get(StorageMetricsInterceptor.CALLS)
+                .tags("storage", "FilmDbStorage", "method", "getFilms", "outcome", "success").timer().count(), 2);
+        assertEquals(meterRegistry.get(StorageMetricsInterceptor.CALLS)
+                .tags("method", "addLike", "outcome", "error").timer().count(), 1);
+        assertEquals(meterRegistry.get(StorageMetricsInterceptor.ROWS)
+                .tags("method", "getFilmById").summary().count(), 1);
+    }
+
+    @Test
+    @DisplayName("Тестирование количества обращений к хранилищу за запрос")
+    public void testStorageCallsPerRequest() throws Exception {
+        mockMvc.perform(get("/films/popular")).andExpect(status().isOk());
+
+        assertEquals(meterRegistry.get(StorageCallCounter.CALLS_PER_REQUEST)
+                .tags("uri", "/films/popular").summary().totalAmount(), 1.0);
+    }
+}
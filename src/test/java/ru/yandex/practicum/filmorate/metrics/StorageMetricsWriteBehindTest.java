@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = {
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.virtual-threads.enabled=true"
+})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class StorageMetricsWriteBehindTest {
+
+    private final FilmStorage filmStorage;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Тестирование метрик хранилища с отложенной записью лайков")
+    public void testDelegateIsNotMeasured() {
+        filmStorage.getFilms();
+
+        assertEquals(meterRegistry.get(StorageMetricsInterceptor.CALLS)
+                .tags("storage", "WriteBehindFilmStorage", "method", "getFilms").timer().count(), 1);
+        assertNull(meterRegistry.find(StorageMetricsInterceptor.CALLS).tags("storage", "FilmDbStorage").timer());
+        assertEquals(meterRegistry.find(StorageMetricsInterceptor.CALLS).tags("method", "getFilms", "outcome", "success").timers().size(), 1);
+    }
+}
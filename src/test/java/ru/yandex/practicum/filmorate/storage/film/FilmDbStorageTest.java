@@ -7,21 +7,28 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 @SpringBootTest
@@ -32,6 +39,7 @@ class FilmDbStorageTest {
 
     private final FilmDbStorage filmDbStorage;
     private final UserDbStorage userDbStorage;
+    private final JdbcTemplate jdbcTemplate;
 
     private Film film;
     private User user;
@@ -71,6 +79,101 @@ class FilmDbStorageTest {
         assertEquals(films.size(), 1);
     }
 
+    @Test
+    @DisplayName("Тестирование загрузки жанров и лайков для всех фильмов")
+    public void testGetFilmsWithGenresAndLikes() {
+        User addedUser = userDbStorage.create(user);
+        Film addedFilm = filmDbStorage.create(film);
+        Film otherFilm = filmDbStorage.create(Film.builder()
+                .name("other film")
+                .description("other description")
+                .releaseDate(LocalDate.of(2010, 5, 5))
+                .duration(90)
+                .mpa(new Mpa(1, null))
+                .build());
+
+        filmDbStorage.addLike(otherFilm.getId(), addedUser.getId());
+        List<Film> films = filmDbStorage.getFilms();
+
+        assertEquals(films.size(), 2);
+        assertEquals(films.get(0).getId(), addedFilm.getId());
+        assertEquals(films.get(0).getGenres().size(), 3);
+        assertEquals(films.get(0).getLikes().size(), 0);
+        assertEquals(films.get(0).getMpa().getName(), "R");
+        assertEquals(films.get(1).getGenres().size(), 0);
+        assertEquals(films.get(1).getLikes(), Set.of(addedUser.getId()));
+    }
+
+    @Test
+    @DisplayName("Тестирование общих экземпляров жанров и MPA")
+    public void testSharedReferenceData() {
+        filmDbStorage.create(film);
+        film.setName("second film");
+        filmDbStorage.create(film);
+
+        List<Film> films = filmDbStorage.getFilms();
+
+        assertSame(films.get(0).getMpa(), films.get(1).getMpa());
+        assertSame(films.get(0).getGenres().iterator().next(), films.get(1).getGenres().iterator().next());
+        assertEquals(films.get(0).getGenres().iterator().next().getName(), "Комедия");
+    }
+
+    @Test
+    @DisplayName("Тестирование постраничного получения фильмов")
+    public void testGetFilmsPage() {
+        Film firstFilm = filmDbStorage.create(film);
+        film.setName("second film");
+        Film secondFilm = filmDbStorage.create(film);
+
+        List<Film> firstPage = filmDbStorage.getFilms(0, 1);
+        List<Film> secondPage = filmDbStorage.getFilms(firstPage.get(0).getId(), 1);
+        List<Film> emptyPage = filmDbStorage.getFilms(secondPage.get(0).getId(), 1);
+
+        assertEquals(firstPage.get(0).getId(), firstFilm.getId());
+        assertEquals(firstPage.get(0).getGenres().size(), 3);
+        assertEquals(secondPage.get(0).getId(), secondFilm.getId());
+        assertEquals(emptyPage.size(), 0);
+    }
+
+    @Test
+    @DisplayName("Тестирование потоковой выгрузки фильмов")
+    public void testStreamFilms() {
+        filmDbStorage.create(film);
+        film.setName("second film");
+        filmDbStorage.create(film);
+
+        List<Film> films = new ArrayList<>();
+        filmDbStorage.streamFilms(films::add);
+
+        assertEquals(films.size(), 2);
+        assertEquals(films.get(1).getName(), "second film");
+        assertEquals(films.get(1).getGenres().size(), 3);
+    }
+
+    @Test
+    @DisplayName("Тестирование потоковой выгрузки фильмов несколькими страницами")
+    public void testStreamFilmsPages() {
+        List<Film> created = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            created.add(Film.builder()
+                    .name("film " + i)
+                    .description("film description")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(100)
+                    .mpa(new Mpa(4, null))
+                    .genres(film.getGenres())
+                    .build());
+        }
+        filmDbStorage.createAll(created);
+
+        List<Film> films = new ArrayList<>();
+        filmDbStorage.streamFilms(films::add);
+
+        assertEquals(ids(films), ids(created));
+        assertEquals(films.get(1000).getName(), "film 1000");
+        assertEquals(films.get(1000).getGenres().size(), 3);
+    }
+
     @Test
     @DisplayName("Тестирование добавления фильма")
     public void testCreateFilm() {
@@ -115,6 +218,16 @@ class FilmDbStorageTest {
                 );
     }
 
+    @Test
+    @DisplayName("Тестирование проверки существования фильма")
+    public void testExistsById() {
+        Film addedFilm = filmDbStorage.create(film);
+
+        assertTrue(filmDbStorage.existsById(addedFilm.getId()));
+        assertFalse(filmDbStorage.existsById(addedFilm.getId() + 1));
+        assertEquals(filmDbStorage.getFilmIds(), List.of(addedFilm.getId()));
+    }
+
     @Test
     @DisplayName("Тестирование добавления лайка фильму")
     public void testAddLikeToFilm() {
@@ -156,4 +269,62 @@ class FilmDbStorageTest {
             fail();
         }
     }
+
+    @Test
+    @DisplayName("Тестирование повторного добавления и удаления лайка")
+    public void testRepeatedLike() {
+        int userId = userDbStorage.create(user).getId();
+        int filmId = filmDbStorage.create(film).getId();
+
+        assertTrue(filmDbStorage.addLike(filmId, userId));
+        assertFalse(filmDbStorage.addLike(filmId, userId));
+        assertEquals(filmDbStorage.addLikes(List.of(new Like(filmId, userId))), List.of());
+        assertEquals(filmDbStorage.getLikesCount(filmId), 1);
+
+        assertTrue(filmDbStorage.removeLike(filmId, userId));
+        assertFalse(filmDbStorage.removeLike(filmId, userId));
+        assertEquals(filmDbStorage.getLikesCount(filmId), 0);
+    }
+
+    @Test
+    @DisplayName("Тестирование популярных фильмов по счётчику лайков")
+    public void testGetPopularFilms() {
+        int firstUserId = userDbStorage.create(user).getId();
+        int secondUserId = userDbStorage.create(user).getId();
+        int firstFilmId = filmDbStorage.create(film).getId();
+        int secondFilmId = filmDbStorage.create(film).getId();
+        int thirdFilmId = filmDbStorage.create(film).getId();
+
+        filmDbStorage.addLike(secondFilmId, firstUserId);
+        filmDbStorage.addLikes(List.of(new Like(secondFilmId, secondUserId), new Like(thirdFilmId, firstUserId)));
+
+        assertEquals(ids(filmDbStorage.getPopularFilms(10)), List.of(secondFilmId, thirdFilmId, firstFilmId));
+        assertEquals(filmDbStorage.getPopularFilms(1).get(0).getLikes().size(), 2);
+        assertEquals(filmDbStorage.findLikes(List.of(new Like(secondFilmId, firstUserId),
+                        new Like(thirdFilmId, secondUserId), new Like(thirdFilmId, firstUserId))),
+                Set.of(new Like(secondFilmId, firstUserId), new Like(thirdFilmId, firstUserId)));
+
+        filmDbStorage.removeLikes(List.of(new Like(secondFilmId, firstUserId), new Like(secondFilmId, secondUserId),
+                new Like(firstFilmId, firstUserId)));
+
+        assertEquals(ids(filmDbStorage.getPopularFilms(2)), List.of(thirdFilmId, firstFilmId));
+        assertEquals(filmDbStorage.getLikeCounts().get(secondFilmId), 0);
+    }
+
+    @Test
+    @DisplayName("Тестирование восстановления счётчиков лайков")
+    public void testRepairLikeCounts() {
+        int userId = userDbStorage.create(user).getId();
+        int filmId = filmDbStorage.create(film).getId();
+        filmDbStorage.addLike(filmId, userId);
+        jdbcTemplate.update("UPDATE films SET like_count = 5 WHERE id = ?", filmId);
+
+        assertEquals(filmDbStorage.repairLikeCounts(), 1);
+        assertEquals(filmDbStorage.getLikeCounts().get(filmId), 1);
+        assertEquals(filmDbStorage.repairLikeCounts(), 0);
+    }
+
+    private static List<Integer> ids(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
 }
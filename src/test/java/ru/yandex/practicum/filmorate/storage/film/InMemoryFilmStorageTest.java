@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("in-memory")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class InMemoryFilmStorageTest {
+
+    private final FilmStorage filmStorage;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Тестирование параллельного добавления лайков")
+    public void testConcurrentLikes() {
+        Film film = filmStorage.create(Film.builder()
+                .name("film name")
+                .description("film description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(4, null))
+                .genres(Set.of(new Genre(2, null), new Genre(1, null)))
+                .build());
+
+        IntStream.rangeClosed(1, 1000).parallel().forEach(userId -> filmStorage.addLike(film.getId(), userId));
+        IntStream.rangeClosed(1, 500).parallel().forEach(userId -> filmStorage.removeLike(film.getId(), userId));
+
+        Film filmById = filmStorage.getFilmById(film.getId()).orElseThrow();
+
+        assertEquals(filmById.getLikes().size(), 500);
+        assertEquals(filmById.getMpa().getName(), "R");
+        assertEquals(filmById.getGenres().iterator().next().getName(), "Комедия");
+        assertEquals(filmStorage.getLikeCounts().get(film.getId()), 500);
+    }
+
+    @Test
+    @DisplayName("Тестирование обновления справочников у загруженных фильмов")
+    public void testReferenceDataReload() {
+        Film film = filmStorage.create(Film.builder()
+                .name("film name")
+                .description("film description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(4, null))
+                .genres(Set.of(new Genre(1, null)))
+                .build());
+
+        jdbcTemplate.update("UPDATE mpas SET name = ? WHERE id = ?", "Restricted", 4);
+        jdbcTemplate.update("UPDATE genres SET name = ? WHERE id = ?", "Comedy", 1);
+        referenceDataRegistry.reload();
+
+        Film filmById = filmStorage.getFilmById(film.getId()).orElseThrow();
+
+        assertEquals(filmById.getMpa(), new Mpa(4, "Restricted"));
+        assertEquals(filmById.getGenres(), Set.of(new Genre(1, "Comedy")));
+    }
+}
@@ -0,0 +1,194 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "filmorate.likes.write-behind.enabled=true")
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class WriteBehindFilmStorageTest {
+
+    private final FilmService filmService;
+    private final UserService userService;
+    private final WriteBehindFilmStorage writeBehindFilmStorage;
+    private final FilmDbStorage filmDbStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final FilmMapper filmMapper;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Тестирование отложенной записи лайков")
+    public void testWriteBehindLikes() throws InterruptedException {
+        int filmId = filmService.createFilm(Film.builder()
+                .name("film name")
+                .description("film description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(1, null))
+                .build()).getId();
+        int firstUserId = createUser("first");
+        int secondUserId = createUser("second");
+
+        filmService.addLike(filmId, firstUserId);
+        filmService.addLike(filmId, secondUserId);
+        filmService.removeLike(filmId, secondUserId);
+        filmService.addLike(filmId, secondUserId);
+        filmService.removeLike(filmId, firstUserId);
+
+        assertEquals(writeBehindFilmStorage.getFilmById(filmId).orElseThrow().getLikes(), Set.of(secondUserId));
+        assertEquals(List.of(filmId), List.of(filmService.getPopularFilms(1).get(0).getId()));
+        assertEquals(filmService.getLikesCount(filmId), 1);
+
+        writeBehindFilmStorage.stop();
+
+        assertEquals(filmDbStorage.getFilmById(filmId).orElseThrow().getLikes(), Set.of(secondUserId));
+        assertEquals(writeBehindFilmStorage.getLikeCounts().get(filmId), 1);
+    }
+
+    @Test
+    @DisplayName("Тестирование повторной записи лайков после сбоя между добавлением и удалением")
+    public void testFlushFailureBetweenWrites() {
+        int filmId = createFilm();
+        int firstUserId = createUser("first");
+        int secondUserId = createUser("second");
+        int thirdUserId = createUser("third");
+        filmDbStorage.addLike(filmId, firstUserId);
+
+        int[] failures = {1};
+        FilmDbStorage failingStorage = new FilmDbStorage(jdbcTemplate, filmMapper, referenceDataRegistry,
+                transactionManager) {
+            @Override
+            public void removeLikes(List<Like> likes) {
+                if (failures[0]-- > 0) {
+                    throw new DataAccessResourceFailureException("injected failure");
+                }
+                super.removeLikes(likes);
+            }
+        };
+        WriteBehindFilmStorage storage = new WriteBehindFilmStorage(failingStorage, 1000, 10, 100);
+
+        storage.addLike(filmId, secondUserId);
+        storage.removeLike(filmId, firstUserId);
+
+        assertThrows(DataAccessResourceFailureException.class, storage::flushPending);
+        assertEquals(filmDbStorage.getFilmById(filmId).orElseThrow().getLikes(), Set.of(firstUserId));
+        assertEquals(storage.getFilmById(filmId).orElseThrow().getLikes(), Set.of(secondUserId));
+
+        storage.addLike(filmId, thirdUserId);
+        storage.flushPending();
+
+        assertEquals(filmDbStorage.getFilmById(filmId).orElseThrow().getLikes(), Set.of(secondUserId, thirdUserId));
+        assertEquals(filmDbStorage.getLikesCount(filmId), 2);
+        assertEquals(storage.getLikesCount(filmId), 2);
+    }
+
+    @Test
+    @DisplayName("Тестирование параллельных повторных лайков")
+    public void testConcurrentDuplicateLikes() throws InterruptedException {
+        int filmId = createFilm();
+        int firstUserId = createUser("first");
+        int secondUserId = createUser("second");
+        filmDbStorage.addLike(filmId, firstUserId);
+
+        assertFalse(writeBehindFilmStorage.addLike(filmId, firstUserId));
+        assertEquals(IntStream.range(0, 100).parallel()
+                .filter(i -> writeBehindFilmStorage.addLike(filmId, secondUserId))
+                .count(), 1L);
+        assertEquals(IntStream.range(0, 100).parallel()
+                .filter(i -> writeBehindFilmStorage.removeLike(filmId, firstUserId))
+                .count(), 1L);
+        assertEquals(writeBehindFilmStorage.getLikesCount(filmId), 1);
+
+        writeBehindFilmStorage.stop();
+
+        assertEquals(filmDbStorage.getFilmById(filmId).orElseThrow().getLikes(), Set.of(secondUserId));
+        assertEquals(filmDbStorage.getLikesCount(filmId), 1);
+    }
+
+    @Test
+    @DisplayName("Тестирование популярных фильмов с учётом отложенных лайков")
+    public void testPopularFilmsWithPendingLikes() {
+        int firstFilmId = createFilm();
+        int secondFilmId = createFilm();
+        int thirdFilmId = createFilm();
+        int firstUserId = createUser("first");
+        int secondUserId = createUser("second");
+        filmDbStorage.addLike(firstFilmId, firstUserId);
+        filmDbStorage.addLike(firstFilmId, secondUserId);
+        filmDbStorage.addLike(secondFilmId, firstUserId);
+
+        writeBehindFilmStorage.removeLike(firstFilmId, firstUserId);
+        writeBehindFilmStorage.removeLike(firstFilmId, secondUserId);
+        writeBehindFilmStorage.addLike(thirdFilmId, firstUserId);
+        writeBehindFilmStorage.addLike(thirdFilmId, secondUserId);
+
+        List<Film> popular = writeBehindFilmStorage.getPopularFilms(2);
+
+        assertEquals(popular.get(0).getId(), thirdFilmId);
+        assertEquals(popular.get(0).getLikes(), Set.of(firstUserId, secondUserId));
+        assertEquals(popular.get(1).getId(), secondFilmId);
+        assertEquals(popular.size(), 2);
+    }
+
+    @Test
+    @DisplayName("Тестирование идемпотентной пакетной записи лайков")
+    public void testIdempotentLikes() {
+        int filmId = createFilm();
+        int userId = createUser("first");
+        List<Like> likes = List.of(new Like(filmId, userId));
+
+        filmDbStorage.addLikes(likes);
+        filmDbStorage.addLikes(likes);
+
+        assertEquals(filmDbStorage.getLikesCount(filmId), 1);
+
+        filmDbStorage.updateLikes(List.of(), likes);
+        filmDbStorage.updateLikes(List.of(), likes);
+
+        assertEquals(filmDbStorage.getLikesCount(filmId), 0);
+    }
+
+    private int createFilm() {
+        return filmService.createFilm(Film.builder()
+                .name("film name")
+                .description("film description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(1, null))
+                .build()).getId();
+    }
+
+    private int createUser(String login) {
+        return userService.createUser(User.builder()
+                .email(login + "@mail.com")
+                .login(login)
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build()).getId();
+    }
+}
@@ -0,0 +1,223 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Тестирование восстановления фильмов из журнала без снимка")
+    public void testReplayFilms() {
+        InMemoryFilmStorage filmStorage = filmStorage();
+        int filmId = filmStorage.create(film("film")).getId();
+        int otherId = filmStorage.create(film("other film")).getId();
+        filmStorage.addLike(filmId, 1);
+        filmStorage.addLike(filmId, 2);
+        filmStorage.addLike(otherId, 1);
+        filmStorage.removeLike(filmId, 1);
+        Film updated = film("updated film");
+        updated.setId(otherId);
+        filmStorage.update(updated);
+
+        InMemoryFilmStorage restored = filmStorage();
+
+        assertEquals(restored.getFilms().size(), 2);
+        assertEquals(restored.getFilmById(filmId).get().getLikes(), Set.of(2));
+        assertEquals(restored.getFilmById(otherId).get().getName(), "updated film");
+        assertEquals(restored.getFilmById(otherId).get().getLikes(), Set.of(1));
+        assertEquals(restored.create(film("new film")).getId(), 3);
+        filmStorage.close();
+    }
+
+    @Test
+    @DisplayName("Тестирование восстановления пользователей из снимка и журнала")
+    public void testSnapshotAndReplayUsers() {
+        InMemoryUserStorage userStorage = userStorage();
+        int userId = userStorage.create(user("user")).getId();
+        int friendId = userStorage.create(user("friend")).getId();
+        userStorage.addFriend(userId, friendId);
+        userStorage.close();
+
+        userStorage = userStorage();
+        int otherId = userStorage.create(user("other")).getId();
+        userStorage.addFriend(userId, otherId);
+        userStorage.removeFromFriends(userId, friendId);
+
+        InMemoryUserStorage restored = userStorage();
+
+        assertEquals(restored.getUsers().size(), 3);
+        assertEquals(restored.getUserById(otherId).get().getLogin(), "other");
+        assertEquals(ids(restored.getFriends(userId)), List.of(otherId));
+        userStorage.close();
+    }
+
+    @Test
+    @DisplayName("Тестирование сжатия переполненного журнала в снимок")
+    public void testCompaction() {
+        InMemoryFilmStorage filmStorage = filmStorage();
+        int filmId = filmStorage.create(film("film")).getId();
+        for (int userId = 1; userId <= 100_000; userId++) {
+            filmStorage.addLike(filmId, userId);
+        }
+
+        InMemoryFilmStorage restored = filmStorage();
+
+        assertEquals(restored.getFilmById(filmId).get().getLikesCount(), 100_000);
+        filmStorage.close();
+    }
+
+    @Test
+    @DisplayName("Тестирование отказа записи в журнал без изменения хранилища")
+    public void testFailedAppend() {
+        InMemoryFilmStorage filmStorage = filmStorage();
+        int filmId = filmStorage.create(film("film")).getId();
+        filmStorage.addLike(filmId, 1);
+        Film updated = film("updated film");
+        updated.setId(filmId);
+        updated.setLikes(IntStream.rangeClosed(1, 300_000).boxed().collect(Collectors.toSet()));
+
+        assertThrows(IllegalStateException.class, () -> filmStorage.update(updated));
+
+        assertEquals(filmStorage.getFilmById(filmId).get().getName(), "film");
+        assertEquals(filmStorage.getFilmById(filmId).get().getLikes(), Set.of(1));
+        assertEquals(filmStorage.getPopularFilms(1).get(0).getLikesCount(), 1);
+        filmStorage.close();
+    }
+
+    @Test
+    @DisplayName("Тестирование записи в журнал во время снимка")
+    public void testAppendDuringSnapshot() throws Exception {
+        Set<Integer> state = ConcurrentHashMap.newKeySet();
+        CountDownLatch snapshotStarted = new CountDownLatch(1);
+        CountDownLatch snapshotReleased = new CountDownLatch(1);
+        Journal journal = new Journal(directory, "test", 1 << 20, 300);
+        journal.open(input -> readIds(input, state), (type, input) -> state.add(input.readInt()), output -> {
+            snapshotStarted.countDown();
+            try {
+                snapshotReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            JournalCodec.writeIds(output, new ArrayList<>(state));
+        });
+        append(journal, state, 1);
+
+        Thread snapshot = new Thread(journal::snapshot);
+        snapshot.start();
+        assertTrue(snapshotStarted.await(10, TimeUnit.SECONDS));
+        CompletableFuture.runAsync(() -> append(journal, state, 2)).get(10, TimeUnit.SECONDS);
+        snapshotReleased.countDown();
+        snapshot.join();
+        append(journal, state, 3);
+
+        Set<Integer> restored = new HashSet<>();
+        new Journal(directory, "test", 1 << 20, 300)
+                .open(input -> readIds(input, restored), (type, input) -> restored.add(input.readInt()), output -> {
+                });
+        assertEquals(restored, Set.of(1, 2, 3));
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("Тестирование восстановления после неудачного снимка")
+    public void testFailedSnapshot() {
+        Set<Integer> state = new HashSet<>();
+        Journal journal = new Journal(directory, "test", 1 << 20, 300);
+        journal.open(input -> readIds(input, state), (type, input) -> state.add(input.readInt()), output -> {
+            throw new IOException("injected failure");
+        });
+        append(journal, state, 1);
+
+        assertThrows(UncheckedIOException.class, journal::snapshot);
+        append(journal, state, 2);
+
+        Set<Integer> restored = new HashSet<>();
+        new Journal(directory, "test", 1 << 20, 300)
+                .open(input -> readIds(input, restored), (type, input) -> restored.add(input.readInt()), output -> {
+                });
+        assertEquals(restored, Set.of(1, 2));
+    }
+
+    @Test
+    @DisplayName("Тестирование изменений без журнала")
+    public void testDisabledJournal() {
+        Set<Integer> state = new HashSet<>();
+        append(Journal.disabled(), state, 1);
+
+        assertEquals(state, Set.of(1));
+    }
+
+    private static void append(Journal journal, Set<Integer> state, int value) {
+        journal.append((byte) 1, output -> output.writeInt(value), () -> state.add(value));
+    }
+
+    private static void readIds(DataInput input, Set<Integer> state) throws IOException {
+        state.addAll(JournalCodec.readIds(input));
+    }
+
+    private InMemoryFilmStorage filmStorage() {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage(null, journalFactory());
+        filmStorage.restore();
+        return filmStorage;
+    }
+
+    private InMemoryUserStorage userStorage() {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage(journalFactory());
+        userStorage.restore();
+        return userStorage;
+    }
+
+    private JournalFactory journalFactory() {
+        return new JournalFactory(directory.toString(), 1, 300);
+    }
+
+    private static List<Integer> ids(List<User> users) {
+        return users.stream().map(User::getId).collect(Collectors.toList());
+    }
+
+    private static Film film(String name) {
+        return Film.builder()
+                .name(name)
+                .description("description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .build();
+    }
+
+    private static User user(String login) {
+        return User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
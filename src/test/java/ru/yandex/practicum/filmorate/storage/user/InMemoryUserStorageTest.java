@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("in-memory")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class InMemoryUserStorageTest {
+
+    private final UserStorage userStorage;
+
+    @Test
+    @DisplayName("Тестирование параллельного добавления пользователей")
+    public void testConcurrentCreate() {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 1000).parallel().forEach(i -> ids.add(userStorage.create(user(i)).getId()));
+
+        assertEquals(ids.size(), 1000);
+        assertEquals(userStorage.getUsers().size(), 1000);
+        assertEquals(userStorage.getUsers(990, 100).size(), 10);
+    }
+
+    @Test
+    @DisplayName("Тестирование друзей и общих друзей")
+    public void testFriends() {
+        int userId = userStorage.create(user(1)).getId();
+        int otherId = userStorage.create(user(2)).getId();
+        int commonId = userStorage.create(user(3)).getId();
+
+        userStorage.addFriend(userId, otherId);
+        userStorage.addFriend(userId, commonId);
+        userStorage.addFriend(otherId, commonId);
+
+        assertEquals(List.of(otherId, commonId), ids(userStorage.getFriends(userId)));
+        assertEquals(List.of(), ids(userStorage.getFriends(commonId)));
+        assertEquals(List.of(commonId), ids(userStorage.getFriends(userId, otherId, 10)));
+        assertEquals(List.of(commonId), ids(userStorage.getCommonFriends(userId, otherId)));
+
+        userStorage.removeFromFriends(userId, commonId);
+
+        assertEquals(List.of(otherId), ids(userStorage.getFriends(userId)));
+    }
+
+    private User user(int i) {
+        return User.builder()
+                .email("user" + i + "@mail.com")
+                .login("login" + i)
+                .name("name" + i)
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+
+    private List<Integer> ids(List<User> users) {
+        return users.stream().map(User::getId).collect(Collectors.toList());
+    }
+}
@@ -11,8 +11,10 @@ import org.springframework.test.annotation.DirtiesContext;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -65,6 +67,50 @@ class UserDbStorageTest {
         assertEquals(users.size(), 1);
     }
 
+    @Test
+    @DisplayName("Тестирование постраничного получения пользователей и друзей")
+    public void testGetUsersAndFriendsPage() {
+        User addedUser = userDbStorage.create(user);
+        User addedFriend = userDbStorage.create(friend);
+        User addedCommonFriend = userDbStorage.create(commonFriend);
+
+        List<User> firstPage = userDbStorage.getUsers(0, 2);
+        List<User> secondPage = userDbStorage.getUsers(firstPage.get(1).getId(), 2);
+
+        assertEquals(firstPage.size(), 2);
+        assertEquals(firstPage.get(0).getId(), addedUser.getId());
+        assertEquals(secondPage.size(), 1);
+        assertEquals(secondPage.get(0).getId(), addedCommonFriend.getId());
+
+        userDbStorage.addFriend(addedUser.getId(), addedFriend.getId());
+        userDbStorage.addFriend(addedUser.getId(), addedCommonFriend.getId());
+        List<User> friendsPage = userDbStorage.getFriends(addedUser.getId(), addedFriend.getId(), 10);
+
+        assertEquals(friendsPage.size(), 1);
+        assertEquals(friendsPage.get(0).getId(), addedCommonFriend.getId());
+    }
+
+    @Test
+    @DisplayName("Тестирование потоковой выгрузки пользователей несколькими страницами")
+    public void testStreamUsersPages() {
+        List<User> created = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            created.add(User.builder()
+                    .name("user " + i)
+                    .login("login" + i)
+                    .email("user" + i + "@mail.com")
+                    .birthday(LocalDate.of(2000, 1, 1))
+                    .build());
+        }
+        userDbStorage.createAll(created);
+
+        List<User> users = new ArrayList<>();
+        userDbStorage.streamUsers(users::add);
+
+        assertEquals(ids(users), ids(created));
+        assertEquals(users.get(1000).getName(), "user 1000");
+    }
+
     @Test
     @DisplayName("Тестирование добавления пользователя")
     public void create() {
@@ -170,4 +216,8 @@ class UserDbStorageTest {
 
         assertEquals(noFriends.size(), 0);
     }
+
+    private static List<Integer> ids(List<User> users) {
+        return users.stream().map(User::getId).collect(Collectors.toList());
+    }
 }